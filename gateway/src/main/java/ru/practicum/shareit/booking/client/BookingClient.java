@@ -1,47 +1,60 @@
 package ru.practicum.shareit.booking.client;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpClient httpClient, Optional<WebClient> webClient, ResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                reactiveClient(webClient, serverUrl + API_PREFIX),
+                responseCache.region(API_PREFIX, "/items")
         );
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookingDto bookingDto) {
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> changeBookingStatus(long userId, long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> changeBookingStatus(long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBookingInfo(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> changeBookingStatuses(long userId, BookingStatusChangeDto statusChangeDto) {
+        return patch("/bulk", userId, null, statusChangeDto);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingInfo(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBooker(long userId, String state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingsByBooker(long userId, String state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
@@ -50,7 +63,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, String state, int from, int size) {
+    public Mono<ResponseEntity<Object>> getBookingsByOwner(long userId, String state, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
@@ -58,4 +71,22 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public Mono<ResponseEntity<Object>> getBookingsByBookerAfter(long userId, String state, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsByOwnerAfter(long userId, String state, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
 }
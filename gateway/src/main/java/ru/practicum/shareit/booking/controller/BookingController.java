@@ -5,8 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.common.Create;
 
 import javax.validation.constraints.Max;
@@ -23,38 +25,52 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader(sharerUserId) long userId,
-                                                @Validated(Create.class) @RequestBody BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader(sharerUserId) long userId,
+                                                      @Validated(Create.class) @RequestBody BookingDto bookingDto) {
         return bookingClient.createBooking(userId, bookingDto);
 
     }
 
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<Object>> changeBookingStatuses(@RequestHeader(sharerUserId) long userId,
+                                                              @Validated @RequestBody BookingStatusChangeDto statusChangeDto) {
+        return bookingClient.changeBookingStatuses(userId, statusChangeDto);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> changeBookingStatus(@RequestHeader(sharerUserId) long userId,
-                                                      @PathVariable long bookingId,
-                                                      @RequestParam boolean approved) {
+    public Mono<ResponseEntity<Object>> changeBookingStatus(@RequestHeader(sharerUserId) long userId,
+                                                            @PathVariable long bookingId,
+                                                            @RequestParam boolean approved) {
         return bookingClient.changeBookingStatus(userId, bookingId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingInfo(@RequestHeader(sharerUserId) long userId,
-                                                 @PathVariable long bookingId) {
+    public Mono<ResponseEntity<Object>> getBookingInfo(@RequestHeader(sharerUserId) long userId,
+                                                       @PathVariable long bookingId) {
         return bookingClient.getBookingInfo(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookingsByBooker(@RequestHeader(sharerUserId) long bookerId,
-                                                      @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                      @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
-                                                      @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
+    public Mono<ResponseEntity<Object>> getBookingsByBooker(@RequestHeader(sharerUserId) long bookerId,
+                                                            @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                            @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
+                                                            @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size,
+                                                            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return bookingClient.getBookingsByBookerAfter(bookerId, state, cursor, size);
+        }
         return bookingClient.getBookingsByBooker(bookerId, state, from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(sharerUserId) long ownerId,
-                                                     @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                     @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
-                                                     @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
+    public Mono<ResponseEntity<Object>> getBookingsByOwner(@RequestHeader(sharerUserId) long ownerId,
+                                                           @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                           @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
+                                                           @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size,
+                                                           @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return bookingClient.getBookingsByOwnerAfter(ownerId, state, cursor, size);
+        }
         return bookingClient.getBookingsByOwner(ownerId, state, from, size);
     }
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusChangeDto {
+    public static final int MAX_BOOKINGS = 100;
+
+    @NotEmpty
+    @Size(max = MAX_BOOKINGS)
+    private List<@NotNull Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+class InFlightReads {
+    private final Map<String, InFlightRead> reads = new ConcurrentHashMap<>();
+
+    static String key(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+        return path + " " + userId + " " + (parameters != null ? new TreeMap<>(parameters) : "");
+    }
+
+    Mono<ResponseEntity<Object>> coalesce(String key, Supplier<Mono<ResponseEntity<Object>>> request) {
+        return Mono.defer(() -> reads.computeIfAbsent(key, k -> new InFlightRead(k, request.get())).response);
+    }
+
+    void detach() {
+        reads.clear();
+    }
+
+    private class InFlightRead {
+        private final Mono<ResponseEntity<Object>> response;
+
+        InFlightRead(String key, Mono<ResponseEntity<Object>> request) {
+            this.response = request
+                    .doFinally(signal -> reads.remove(key, this))
+                    .share();
+        }
+    }
+}
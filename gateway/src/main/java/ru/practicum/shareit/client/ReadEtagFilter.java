@@ -0,0 +1,19 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+@Component
+public class ReadEtagFilter extends ShallowEtagHeaderFilter {
+    private static final Pattern CACHEABLE_PATHS = Pattern.compile("/(items/\\d+|items/search|users/\\d+|requests/\\d+)");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CACHEABLE_PATHS.matcher(request.getRequestURI()).matches();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class ResponseCache implements MeterBinder {
+    private static final String CACHE_NAME = "gateway-responses";
+
+    private final long maxSize;
+    private final Duration retention;
+    private final long ttlNanos;
+    private final Map<String, RegionCache> regions = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile MeterRegistry registry;
+
+    public ResponseCache(@Value("${shareit-server.cache.max-size:10000}") long maxSize,
+                         @Value("${shareit-server.cache.ttl:5s}") Duration ttl,
+                         @Value("${shareit-server.cache.retention:10m}") Duration retention) {
+        this.maxSize = maxSize;
+        this.retention = retention;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Region region(String name, String... alsoInvalidated) {
+        List<RegionCache> invalidated = new ArrayList<>();
+        for (String other : alsoInvalidated) {
+            invalidated.add(regionCache(other));
+        }
+        RegionCache cache = regionCache(name);
+        invalidated.add(cache);
+        return new Region(cache, invalidated);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        regions.forEach((name, cache) -> cache.monitor(registry, name));
+    }
+
+    private RegionCache regionCache(String name) {
+        return regions.computeIfAbsent(name, regionName -> {
+            RegionCache cache = new RegionCache();
+            MeterRegistry boundRegistry = registry;
+            if (boundRegistry != null) {
+                cache.monitor(boundRegistry, regionName);
+            }
+            return cache;
+        });
+    }
+
+    private Mono<ResponseEntity<Object>> fetch(RegionCache cache, String key,
+                                               Function<String, Mono<ResponseEntity<Object>>> exchange) {
+        CachedResponse cached = cache.responses.getIfPresent(key);
+        if (cached != null && System.nanoTime() - cached.validatedAt < ttlNanos) {
+            return Mono.just(cached.toResponse());
+        }
+        long requestGeneration = cache.generation.get();
+        return exchange.apply(cached != null ? cached.etag : null)
+                .map(response -> store(cache, key, requestGeneration, cached, response));
+    }
+
+    private ResponseEntity<Object> store(RegionCache cache, String key, long requestGeneration,
+                                         @Nullable CachedResponse cached, ResponseEntity<Object> response) {
+        CachedResponse fresh;
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            fresh = new CachedResponse(cached.headers, cached.body, cached.etag);
+        } else if (response.getStatusCode() == HttpStatus.OK) {
+            fresh = new CachedResponse(response.getHeaders(), (byte[]) response.getBody(), response.getHeaders().getETag());
+        } else {
+            return response;
+        }
+        if (cache.generation.get() == requestGeneration) {
+            cache.responses.put(key, fresh);
+        }
+        return fresh.toResponse();
+    }
+
+    public class Region {
+        private final RegionCache cache;
+        private final List<RegionCache> invalidated;
+
+        private Region(RegionCache cache, List<RegionCache> invalidated) {
+            this.cache = cache;
+            this.invalidated = invalidated;
+        }
+
+        public Mono<ResponseEntity<Object>> fetch(String path, @Nullable Long userId,
+                                                  @Nullable Map<String, Object> parameters,
+                                                  Function<String, Mono<ResponseEntity<Object>>> exchange) {
+            String key = InFlightReads.key(path, userId, parameters);
+            return cache.fetches.coalesce(key, () -> ResponseCache.this.fetch(cache, key, exchange));
+        }
+
+        public Mono<ResponseEntity<Object>> coalesce(String path, @Nullable Long userId,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     Supplier<Mono<ResponseEntity<Object>>> request) {
+            return cache.reads.coalesce(InFlightReads.key(path, userId, parameters), request);
+        }
+
+        public void invalidate() {
+            invalidated.forEach(RegionCache::invalidate);
+        }
+    }
+
+    private class RegionCache {
+        private final Cache<String, CachedResponse> responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(retention)
+                .recordStats()
+                .build();
+        private final AtomicLong generation = new AtomicLong();
+        private final InFlightReads fetches = new InFlightReads();
+        private final InFlightReads reads = new InFlightReads();
+
+        private void monitor(MeterRegistry registry, String name) {
+            CaffeineCacheMetrics.monitor(registry, responses, CACHE_NAME, "region", name);
+        }
+
+        private void invalidate() {
+            generation.incrementAndGet();
+            fetches.detach();
+            reads.detach();
+            responses.invalidateAll();
+        }
+    }
+
+    private static class CachedResponse {
+        private final HttpHeaders headers;
+        @Nullable
+        private final byte[] body;
+        @Nullable
+        private final String etag;
+        private final long validatedAt = System.nanoTime();
+
+        CachedResponse(HttpHeaders headers, @Nullable byte[] body, @Nullable String etag) {
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.etag = etag;
+        }
+
+        ResponseEntity<Object> toResponse() {
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.Create;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BulkItemForwarder {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public List<BulkItemResultDto> forward(InputStream in, OutputStream out) throws IOException {
+        List<BulkItemResultDto> rejected = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            if (skipWhitespace(reader) == '[') {
+                forwardArray(reader, generator, rejected);
+            } else {
+                forwardLines(reader, generator, rejected);
+            }
+        }
+        return rejected;
+    }
+
+    private int skipWhitespace(BufferedReader reader) throws IOException {
+        int c;
+        do {
+            reader.mark(1);
+            c = reader.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        reader.reset();
+        return c;
+    }
+
+    private void forwardLines(BufferedReader reader, JsonGenerator generator, List<BulkItemResultDto> rejected)
+            throws IOException {
+        int line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            String error;
+            try {
+                error = validate(objectMapper.readTree(text), line, generator);
+            } catch (JsonProcessingException e) {
+                log.warn("Некорректный JSON в строке импорта {}: {}", line, e.getOriginalMessage());
+                error = "Некорректный JSON: " + e.getOriginalMessage();
+            }
+            if (error != null) {
+                rejected.add(BulkItemResultDto.failed(line, error));
+            }
+        }
+    }
+
+    private void forwardArray(BufferedReader reader, JsonGenerator generator, List<BulkItemResultDto> rejected)
+            throws IOException {
+        int line = 1;
+        try (JsonParser parser = objectMapper.getFactory().createParser(reader)) {
+            parser.nextToken();
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = parser.readValueAsTree();
+                String error = validate(node, line, generator);
+                if (error != null) {
+                    rejected.add(BulkItemResultDto.failed(line, error));
+                }
+                line++;
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Некорректный JSON в строке импорта {}: {}", line, e.getOriginalMessage());
+            rejected.add(BulkItemResultDto.failed(line,
+                    "Некорректный JSON: " + e.getOriginalMessage() + "; остальные вещи массива не импортированы"));
+        }
+    }
+
+    private String validate(JsonNode node, int line, JsonGenerator generator) throws IOException {
+        if (!node.isObject()) {
+            return "Ожидался объект вещи";
+        }
+        ItemDto itemDto;
+        try {
+            itemDto = objectMapper.treeToValue(node, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            return "Некорректная вещь: " + e.getOriginalMessage();
+        }
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, Create.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        generator.writeObject(new BulkItemLineDto(line, itemDto));
+        return null;
+    }
+}
@@ -1,41 +1,105 @@
 package ru.practicum.shareit.item.client;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
+@Slf4j
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final RestTemplate streamingRest;
+    private final BulkItemForwarder bulkItemForwarder;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpClient httpClient, Optional<WebClient> webClient, ResponseCache responseCache,
+                      BulkItemForwarder bulkItemForwarder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                reactiveClient(webClient, serverUrl + API_PREFIX),
+                responseCache.region(API_PREFIX, "/requests")
         );
+        this.streamingRest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+                    requestFactory.setBufferRequestBody(false);
+                    return requestFactory;
+                })
+                .build();
+        this.bulkItemForwarder = bulkItemForwarder;
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
+    public ResponseEntity<Object> importItems(long userId, InputStream items) {
+        List<BulkItemResultDto> rejected = new ArrayList<>();
+        BulkItemReportDto report;
+        try {
+            report = streamingRest.execute("/bulk", HttpMethod.POST, request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        rejected.addAll(bulkItemForwarder.forward(items, request.getBody()));
+                    },
+                    new HttpMessageConverterExtractor<>(BulkItemReportDto.class, streamingRest.getMessageConverters()));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        } finally {
+            invalidateCache();
+        }
+        if (report == null || report.getResults() == null) {
+            log.warn("Сервер не вернул отчет об импорте вещей пользователя {}", userId);
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(new ErrorResponse(502, "Bad Gateway", "Сервер не вернул отчет об импорте"));
+        }
+        List<BulkItemResultDto> results = new ArrayList<>(report.getResults());
+        results.addAll(rejected);
+        results.sort(Comparator.comparingInt(BulkItemResultDto::getLine));
+        return ResponseEntity.ok(new BulkItemReportDto(report.getCreated(), report.getFailed() + rejected.size(), results));
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getAllItemsOfOwner(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllItemsOfOwner(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -43,20 +107,36 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId) {
+        return getCached("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchItem(String text, long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> searchItem(String text, long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return getCached("/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> suggestItemNames(String prefix, long userId, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/search/suggest?prefix={prefix}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -1,17 +1,23 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.common.Update;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/items")
@@ -22,19 +28,25 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader(sharerUserId) long userId,
-                                             @Validated(Create.class) @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader(sharerUserId) long userId,
+                                                   @Validated(Create.class) @RequestBody ItemDto itemDto) {
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader(sharerUserId) long userId,
+                                              HttpServletRequest request) throws IOException {
+        return itemClient.importItems(userId, request.getInputStream());
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
-                                             @Validated(Update.class) @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
+                                                   @Validated(Update.class) @RequestBody ItemDto itemDto) {
         return itemClient.updateItem(userId, itemId, itemDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsOfOwner(
+    public Mono<ResponseEntity<Object>> getAllItemsOfOwner(
             @RequestHeader(sharerUserId) long userId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
             @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
@@ -42,21 +54,35 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId) {
         return itemClient.getItemById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getItemAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestHeader(sharerUserId) long userId,
-                                             @RequestParam String text,
-                                             @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
-                                             @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
+    public Mono<ResponseEntity<Object>> searchItem(@RequestHeader(sharerUserId) long userId,
+                                                   @RequestParam String text,
+                                                   @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
+                                                   @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
         return itemClient.searchItem(text, userId, from, size);
     }
 
+    @GetMapping("/search/suggest")
+    public Mono<ResponseEntity<Object>> suggestItemNames(@RequestHeader(sharerUserId) long userId,
+                                                         @RequestParam String prefix,
+                                                         @RequestParam(value = "size", defaultValue = "10") @Min(1) @Max(20) int size) {
+        return itemClient.suggestItemNames(prefix, userId, size);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
-                                             @Validated(Create.class) @RequestBody CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
+                                                   @Validated(Create.class) @RequestBody CommentDto commentDto) {
         return itemClient.addComment(userId, itemId, commentDto);
     }
 }
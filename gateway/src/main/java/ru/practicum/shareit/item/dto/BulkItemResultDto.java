@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResultDto {
+    private int line;
+    private Long id;
+    private String error;
+
+    public static BulkItemResultDto created(int line, long id) {
+        return new BulkItemResultDto(line, id, null);
+    }
+
+    public static BulkItemResultDto failed(int line, String error) {
+        return new BulkItemResultDto(line, null, error);
+    }
+}
@@ -3,38 +3,69 @@ package ru.practicum.shareit.request.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.HttpClientProperties;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
+    private final URI answersUri;
+    private final HttpClient streamClient;
+
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         org.apache.http.client.HttpClient httpClient, Optional<WebClient> webClient,
+                         ResponseCache responseCache, HttpClientProperties properties) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                reactiveClient(webClient, serverUrl + API_PREFIX),
+                responseCache.region(API_PREFIX)
         );
+        this.answersUri = URI.create(serverUrl + API_PREFIX + "/answers");
+        this.streamClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
     }
 
-    public ResponseEntity<Object> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getForUserRequests(long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Object>> getForUserRequests(long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getNotForUserRequests(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getNotForUserRequests(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -42,7 +73,70 @@ public class RequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequest(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getItemRequest(long userId, long requestId) {
+        return getCached("/" + requestId, userId);
+    }
+
+    public Mono<ResponseEntity<ResponseBodyEmitter>> subscribeAnswers(long userId) {
+        HttpRequest request = HttpRequest.newBuilder(answersUri)
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+        return Mono.fromFuture(streamClient.sendAsync(request, HttpResponse.BodyHandlers.ofPublisher()))
+                .map(RequestClient::relay)
+                .onErrorReturn(IOException.class, ResponseEntity.status(502).build());
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> relay(HttpResponse<Flow.Publisher<List<ByteBuffer>>> response) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        response.body().subscribe(new StreamForwarder(emitter));
+        MediaType contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+                .map(MediaType::parseMediaType)
+                .orElse(MediaType.TEXT_EVENT_STREAM);
+        return ResponseEntity.status(response.statusCode()).contentType(contentType).body(emitter);
+    }
+
+    private static class StreamForwarder implements Flow.Subscriber<List<ByteBuffer>> {
+        private final ResponseBodyEmitter emitter;
+        private Flow.Subscription subscription;
+
+        StreamForwarder(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            emitter.onCompletion(subscription::cancel);
+            emitter.onTimeout(subscription::cancel);
+            emitter.onError(e -> subscription.cancel());
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    emitter.send(bytes, MediaType.APPLICATION_OCTET_STREAM);
+                }
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                subscription.cancel();
+                emitter.completeWithError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.completeWithError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            emitter.complete();
+        }
     }
 }
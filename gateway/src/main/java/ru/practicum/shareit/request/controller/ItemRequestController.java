@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.request.client.RequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -21,25 +23,32 @@ public class ItemRequestController {
     private final String sharerUserId = "X-Sharer-User-Id";
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(@RequestHeader(sharerUserId) Long userId,
-                                                    @Validated(Create.class) @RequestBody ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> createItemRequest(@RequestHeader(sharerUserId) Long userId,
+                                                          @Validated(Create.class) @RequestBody ItemRequestDto itemRequestDto) {
         return requestClient.createItemRequest(userId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getForUserRequests(@RequestHeader(sharerUserId) Long userId) {
-        return requestClient.getForUserRequests(userId);
+    public Mono<ResponseEntity<Object>> getForUserRequests(@RequestHeader(sharerUserId) Long userId,
+                                                           @RequestParam(defaultValue = "0") @Min(0) int from,
+                                                           @RequestParam(defaultValue = "10") @Min(1) @Max(20) int size) {
+        return requestClient.getForUserRequests(userId, from, size);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getNotForUserRequests(@RequestHeader(sharerUserId) Long userId,
-                                                        @RequestParam(defaultValue = "0") @Min(0) int from,
-                                                        @RequestParam(defaultValue = "10") @Min(1) @Max(20) int size) {
+    public Mono<ResponseEntity<Object>> getNotForUserRequests(@RequestHeader(sharerUserId) Long userId,
+                                                              @RequestParam(defaultValue = "0") @Min(0) int from,
+                                                              @RequestParam(defaultValue = "10") @Min(1) @Max(20) int size) {
         return requestClient.getNotForUserRequests(userId, from, size);
     }
 
+    @GetMapping("/answers")
+    public Mono<ResponseEntity<ResponseBodyEmitter>> subscribeAnswers(@RequestHeader(sharerUserId) Long userId) {
+        return requestClient.subscribeAnswers(userId);
+    }
+
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequest(@RequestHeader(sharerUserId) Long userId, @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getItemRequest(@RequestHeader(sharerUserId) Long userId, @PathVariable Long requestId) {
         return requestClient.getItemRequest(userId, requestId);
     }
 }
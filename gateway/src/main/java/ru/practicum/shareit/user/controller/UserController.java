@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.common.Update;
 import ru.practicum.shareit.user.client.UserClient;
@@ -16,28 +17,28 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Validated(Create.class) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@Validated(Create.class) @RequestBody UserDto userDto) {
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@PathVariable long id,
-                                             @Validated(Update.class) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable long id,
+                                                   @Validated(Update.class) @RequestBody UserDto userDto) {
         return userClient.updateUser(id, userDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable long id) {
         return userClient.deleteUser(id);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
+    public Mono<ResponseEntity<Object>> findAll() {
         return userClient.findAll();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable long id) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable long id) {
         return userClient.getUserById(id);
     }
 }
@@ -8,19 +8,28 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMockMvc.perform;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerTest {
@@ -59,9 +68,9 @@ class BookingControllerTest {
         savedBookingDto.setStatus(createBookingDto.getStatus());
         Long userId = 1L;
         ResponseEntity<Object> response = ResponseEntity.status(201).body(savedBookingDto);
-        when(bookingClient.createBooking(anyLong(), any(BookingDto.class))).thenReturn(response);
+        when(bookingClient.createBooking(anyLong(), any(BookingDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/bookings")
+        perform(mockMvc, post("/bookings")
                         .content(objectMapper.writeValueAsString(createBookingDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", userId))
@@ -76,7 +85,7 @@ class BookingControllerTest {
         createBookingDto.setEnd(LocalDateTime.now().plusDays(2));
         Long userId = 1L;
 
-        mockMvc.perform(post("/bookings")
+        perform(mockMvc, post("/bookings")
                         .content(objectMapper.writeValueAsString(createBookingDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", userId))
@@ -90,15 +99,46 @@ class BookingControllerTest {
         BookingDto dto = getBookingDto();
         dto.setStatus(BookingStatus.APPROVED);
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(bookingClient.changeBookingStatus(bookingId, ownerId, true)).thenReturn(response);
+        when(bookingClient.changeBookingStatus(bookingId, ownerId, true)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(patch("/bookings/{id}", bookingId)
+        perform(mockMvc, patch("/bookings/{id}", bookingId)
                         .header("X-Sharer-User-Id", ownerId)
                         .param("approved", String.valueOf(true)))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dto)));
     }
 
+    @Test
+    void changeBookingStatusesTest() throws Exception {
+        long ownerId = 1L;
+        List<Map<String, Object>> results = List.of(Map.of("bookingId", 1, "status", "APPROVED"));
+        when(bookingClient.changeBookingStatuses(eq(ownerId), any(BookingStatusChangeDto.class)))
+                .thenReturn(Mono.just(ResponseEntity.ok(results)));
+
+        perform(mockMvc, patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .content(objectMapper.writeValueAsString(new BookingStatusChangeDto(List.of(1L), true)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(results)));
+    }
+
+    @Test
+    void changeBookingStatusesWithEmptyIdsTest() throws Exception {
+        perform(mockMvc, patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(new BookingStatusChangeDto(Collections.emptyList(), true)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        perform(mockMvc, patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(new BookingStatusChangeDto(List.of(1L), null)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(bookingClient, never()).changeBookingStatuses(anyLong(), any(BookingStatusChangeDto.class));
+    }
+
     @Test
     void getBookingsByBookerTest() throws Exception {
         int from = 0;
@@ -107,9 +147,9 @@ class BookingControllerTest {
         List<BookingDto> dtoList = List.of(getBookingDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
         when(bookingClient.getBookingsByBooker(userId, "ALL", from, size))
-                .thenReturn(response);
+                .thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/bookings/")
+        perform(mockMvc, get("/bookings/")
                         .header("X-Sharer-User-Id", userId)
                         .param("state", "ALL")
                         .param("from", String.valueOf(from))
@@ -126,9 +166,9 @@ class BookingControllerTest {
         List<BookingDto> dtoList = List.of(getBookingDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
         when(bookingClient.getBookingsByOwner(ownerId, "ALL", from, size))
-                .thenReturn(response);
+                .thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/bookings/owner")
+        perform(mockMvc, get("/bookings/owner")
                         .header("X-Sharer-User-Id", ownerId)
                         .param("state", "ALL")
                         .param("from", String.valueOf(from))
@@ -143,11 +183,44 @@ class BookingControllerTest {
         long userId = 1L;
         BookingDto dto = getBookingDto();
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(bookingClient.getBookingInfo(bookingId, userId)).thenReturn(response);
+        when(bookingClient.getBookingInfo(bookingId, userId)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/bookings/{id}", bookingId)
+        perform(mockMvc, get("/bookings/{id}", bookingId)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dto)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsByBookerAfterCursorTest() throws Exception {
+        long userId = 1L;
+        List<BookingDto> dtoList = List.of(getBookingDto());
+        ResponseEntity<Object> response = ResponseEntity.status(200).header("X-Next-Cursor", "next").body(dtoList);
+        when(bookingClient.getBookingsByBookerAfter(userId, "ALL", "cursor", 10))
+                .thenReturn(Mono.just(response));
+
+        perform(mockMvc, get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoList)));
+    }
+
+    @Test
+    void getBookingsByOwnerAfterCursorTest() throws Exception {
+        long ownerId = 1L;
+        List<BookingDto> dtoList = List.of(getBookingDto());
+        ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
+        when(bookingClient.getBookingsByOwnerAfter(ownerId, "FUTURE", "cursor", 5))
+                .thenReturn(Mono.just(response));
+
+        perform(mockMvc, get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "FUTURE")
+                        .param("size", "5")
+                        .param("cursor", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoList)));
+    }
+}
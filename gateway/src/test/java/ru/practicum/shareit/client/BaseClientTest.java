@@ -0,0 +1,332 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    private static final String BODY = "[ {\"id\": 1,  \"name\": \"Дрель\"} ]";
+
+    @Test
+    void blockingPassesBodyBytesThroughTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        HttpHeaders upstreamHeaders = new HttpHeaders();
+        upstreamHeaders.set("X-Next-Cursor", "abc");
+        upstreamHeaders.set(HttpHeaders.CONNECTION, "keep-alive");
+        server.expect(requestTo("/items"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(BODY.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON)
+                        .headers(upstreamHeaders));
+
+        ResponseEntity<Object> response = new TestClient(rest, null).get("/items", 1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("abc", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        server.verify();
+    }
+
+    @Test
+    void blockingPassesErrorThroughTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        String error = "{\"error\": \"Вещь не найдена\"}";
+        server.expect(requestTo("/items/5"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(error.getBytes(StandardCharsets.UTF_8)));
+
+        ResponseEntity<Object> response = new TestClient(rest, null).get("/items/5", 1L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void reactivePassesBodyBytesThroughTest() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.CREATED)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                        .header(HttpHeaders.LOCATION, "/items/1")
+                        .body(BODY)
+                        .build()))
+                .build();
+
+        ResponseEntity<Object> response = new TestClient(new RestTemplate(), webClient).get("/items", 1L).block();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals("/items/1", response.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    void reactiveEmptyBodyTest() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()))
+                .build();
+
+        ResponseEntity<Object> response = new TestClient(new RestTemplate(), webClient).get("/users/1").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void cachedGetServedFromCacheWithinTtlTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        server.expect(ExpectedCount.once(), requestTo("/items/1"))
+                .andRespond(withSuccess(BODY.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+        TestClient client = new TestClient(rest, null, new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10)));
+
+        client.getCached("/items/1", 1L).block();
+        ResponseEntity<Object> response = client.getCached("/items/1", 1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        server.verify();
+    }
+
+    @Test
+    void cachedGetKeyedByUserTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        server.expect(requestTo("/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "2"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        TestClient client = new TestClient(rest, null, new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10)));
+
+        client.getCached("/items/1", 1L).block();
+        client.getCached("/items/1", 2L).block();
+
+        server.verify();
+    }
+
+    @Test
+    void cachedGetRevalidatesWithEtagTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        server.expect(requestTo("/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(etag("\"v1\"")));
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(etag("\"v1\"")));
+        TestClient client = new TestClient(rest, null, new ResponseCache(100, Duration.ZERO, Duration.ofMinutes(10)));
+
+        client.getCached("/items/1", 1L).block();
+        ResponseEntity<Object> response = client.getCached("/items/1", 1L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        server.verify();
+    }
+
+    @Test
+    void cachedGetDoesNotCacheErrorsTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        server.expect(ExpectedCount.twice(), requestTo("/items/5"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        TestClient client = new TestClient(rest, null, new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10)));
+
+        client.getCached("/items/5", 1L).block();
+        ResponseEntity<Object> response = client.getCached("/items/5", 1L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        server.verify();
+    }
+
+    @Test
+    void writeInvalidatesRelatedRegionsTest() {
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        RestTemplate itemsRest = new RestTemplate();
+        MockRestServiceServer items = MockRestServiceServer.bindTo(itemsRest).build();
+        items.expect(ExpectedCount.twice(), requestTo("/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        RestTemplate bookingsRest = new RestTemplate();
+        MockRestServiceServer bookings = MockRestServiceServer.bindTo(bookingsRest).build();
+        bookings.expect(requestTo("/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess());
+        TestClient itemClient = new TestClient(itemsRest, null, cache.region("/items"));
+        TestClient bookingClient = new TestClient(bookingsRest, null, cache.region("/bookings", "/items"));
+
+        itemClient.getCached("/1", 1L).block();
+        bookingClient.patch("/1", 1L).block();
+        itemClient.getCached("/1", 1L).block();
+
+        items.verify();
+        bookings.verify();
+    }
+
+    @Test
+    void writeKeepsUnrelatedRegionsCachedTest() {
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        RestTemplate usersRest = new RestTemplate();
+        MockRestServiceServer users = MockRestServiceServer.bindTo(usersRest).build();
+        users.expect(ExpectedCount.once(), requestTo("/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        RestTemplate bookingsRest = new RestTemplate();
+        MockRestServiceServer bookings = MockRestServiceServer.bindTo(bookingsRest).build();
+        bookings.expect(requestTo("/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess());
+        TestClient userClient = new TestClient(usersRest, null, cache.region("/users", "/items"));
+        TestClient bookingClient = new TestClient(bookingsRest, null, cache.region("/bookings", "/items"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        userClient.getCached("/1", 1L).block();
+        bookingClient.patch("/1", 1L).block();
+        ResponseEntity<Object> response = userClient.getCached("/1", 1L).block();
+
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(1.0, registry.get("cache.gets").tags("region", "/users", "result", "hit").functionCounter().count());
+        users.verify();
+        bookings.verify();
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCallTest() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<ClientResponse> upstream = Sinks.one();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    calls.incrementAndGet();
+                    return upstream.asMono();
+                })
+                .build();
+        TestClient client = new TestClient(new RestTemplate(), webClient);
+        List<ResponseEntity<Object>> responses = new CopyOnWriteArrayList<>();
+
+        client.get("/items/1", 1L).subscribe(responses::add);
+        client.get("/items/1", 1L).subscribe(responses::add);
+        client.get("/items/1", 2L).subscribe(responses::add);
+        upstream.tryEmitValue(ClientResponse.create(HttpStatus.OK).body(BODY).build());
+
+        assertEquals(2, calls.get());
+        assertEquals(3, responses.size());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) responses.get(0).getBody());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) responses.get(1).getBody());
+    }
+
+    @Test
+    void completedGetIsNotReusedTest() {
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(rest).build();
+        server.expect(ExpectedCount.twice(), requestTo("/items/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        TestClient client = new TestClient(rest, null);
+
+        client.get("/items/1", 1L).block();
+        client.get("/items/1", 1L).block();
+
+        server.verify();
+    }
+
+    @Test
+    void writeDetachesInFlightGetsTest() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    calls.incrementAndGet();
+                    return request.method() == HttpMethod.GET
+                            ? Mono.never()
+                            : Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                })
+                .build();
+        TestClient client = new TestClient(new RestTemplate(), webClient);
+
+        client.get("/items/1", 1L).subscribe();
+        client.patch("/items/1", 1L).block();
+        client.get("/items/1", 1L).subscribe();
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void writeDetachesInFlightGetsOfOtherClientsInAffectedRegionsTest() {
+        AtomicInteger itemCalls = new AtomicInteger();
+        WebClient itemsWebClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    itemCalls.incrementAndGet();
+                    return Mono.never();
+                })
+                .build();
+        WebClient bookingsWebClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()))
+                .build();
+        ResponseCache cache = new ResponseCache(100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        TestClient itemClient = new TestClient(new RestTemplate(), itemsWebClient, cache.region("/items"));
+        TestClient bookingClient = new TestClient(new RestTemplate(), bookingsWebClient, cache.region("/bookings", "/items"));
+
+        itemClient.get("/1", 1L).subscribe();
+        itemClient.getCached("/1", 1L).subscribe();
+        itemClient.get("/1", 1L).subscribe();
+        itemClient.getCached("/1", 1L).subscribe();
+        bookingClient.patch("/1", 1L).block();
+        itemClient.get("/1", 1L).subscribe();
+        itemClient.getCached("/1", 1L).subscribe();
+
+        assertEquals(4, itemCalls.get());
+    }
+
+    private static HttpHeaders etag(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return headers;
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, WebClient webClient) {
+            super(rest, webClient);
+        }
+
+        TestClient(RestTemplate rest, WebClient webClient, ResponseCache cache) {
+            this(rest, webClient, cache.region("/items"));
+        }
+
+        TestClient(RestTemplate rest, WebClient webClient, ResponseCache.Region cacheRegion) {
+            super(rest, webClient, cacheRegion);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "shareit-server.http.max-total=7",
+        "shareit-server.http.max-per-route=5"
+})
+class HttpClientConfigTest {
+    private static final HttpServer server = startServer();
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserClient userClient;
+    @Autowired
+    private BookingClient bookingClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void poolSettingsTest() {
+        assertEquals(7, connectionManager.getMaxTotal());
+        assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(7.0, gauge("max"));
+    }
+
+    @Test
+    void clientsShareKeptAliveConnectionTest() {
+        ResponseEntity<Object> user = userClient.getUserById(1L).block();
+        ResponseEntity<Object> booking = bookingClient.getBookingInfo(1L, 1L).block();
+
+        assertEquals(200, user.getStatusCodeValue());
+        assertEquals(200, booking.getStatusCodeValue());
+        assertEquals(0.0, gauge("leased"));
+        assertEquals(0.0, gauge("pending"));
+        assertEquals(1.0, gauge("available"));
+    }
+
+    private double gauge(String state) {
+        return meterRegistry.get("shareit.http.pool.connections").tag("state", state).gauge().value();
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.createContext("/", exchange -> {
+                byte[] body = "{\"id\": 1}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            return httpServer;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-server.http.mode=reactive")
+class ReactiveClientModeTest {
+    private static final List<String> sharerHeaders = new CopyOnWriteArrayList<>();
+    private static final HttpServer server = startServer();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private WebClient reactiveWebClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void proxiesThroughWebClientTest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "3");
+
+        ResponseEntity<String> found = restTemplate.exchange("/items/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> missing = restTemplate.exchange("/items/404", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertNotNull(reactiveWebClient);
+        assertEquals(200, found.getStatusCodeValue());
+        assertEquals("{\"id\":1}", found.getBody());
+        assertEquals(404, missing.getStatusCodeValue());
+        assertEquals("{\"error\":\"Вещь не найдена\"}", missing.getBody());
+        assertEquals(List.of("3", "3"), sharerHeaders.subList(sharerHeaders.size() - 2, sharerHeaders.size()));
+    }
+
+    @Test
+    void keepsValidationTest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "3");
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        int forwarded = sharerHeaders.size();
+
+        ResponseEntity<String> response = restTemplate.exchange("/items", HttpMethod.POST,
+                new HttpEntity<>("{\"name\": \"\"}", headers), String.class);
+
+        assertEquals(400, response.getStatusCodeValue());
+        assertEquals(forwarded, sharerHeaders.size());
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.createContext("/items/", exchange -> {
+                sharerHeaders.add(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+                boolean missing = exchange.getRequestURI().getPath().endsWith("/404");
+                byte[] body = (missing ? "{\"error\":\"Вещь не найдена\"}" : "{\"id\":1}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(missing ? 404 : 200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            return httpServer;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
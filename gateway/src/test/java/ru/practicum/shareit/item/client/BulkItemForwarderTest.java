@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.client;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkItemForwarderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BulkItemForwarder forwarder = new BulkItemForwarder(objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void forwardNdjsonTest() throws IOException {
+        String body = "{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}\n"
+                + "{\"name\": \"\", \"description\": \"Empty\", \"available\": true}\n"
+                + "\n"
+                + "{\"name\": \"Saw\", \"description\": \"Hand saw\", \"available\": false, \"requestId\": 5}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        List<BulkItemResultDto> rejected = forwarder.forward(stream(body), out);
+
+        assertEquals(1, rejected.size());
+        assertEquals(2, rejected.get(0).getLine());
+        assertTrue(rejected.get(0).getError().startsWith("name: "));
+        List<BulkItemLineDto> lines = read(out);
+        assertEquals(List.of(1, 4), lines.stream().map(BulkItemLineDto::getLine).collect(Collectors.toList()));
+        assertEquals("Saw", lines.get(1).getItem().getName());
+        assertEquals(5L, lines.get(1).getItem().getRequestId());
+    }
+
+    @Test
+    void forwardJsonArrayTest() throws IOException {
+        String body = "[{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}, 42,"
+                + " {\"name\": \"Saw\", \"description\": \"Hand saw\", \"available\": true}]";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        List<BulkItemResultDto> rejected = forwarder.forward(stream(body), out);
+
+        assertEquals(1, rejected.size());
+        assertEquals(2, rejected.get(0).getLine());
+        assertEquals("Ожидался объект вещи", rejected.get(0).getError());
+        assertEquals(List.of(1, 3), read(out).stream().map(BulkItemLineDto::getLine).collect(Collectors.toList()));
+    }
+
+    @Test
+    void forwardSkipsMalformedLineTest() throws IOException {
+        String body = "{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}\n"
+                + "{\"name\": \"Saw\", \n"
+                + "{\"name\": \"Axe\", \"description\": \"Axe\", \"available\": true}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        List<BulkItemResultDto> rejected = forwarder.forward(stream(body), out);
+
+        assertEquals(1, rejected.size());
+        assertEquals(2, rejected.get(0).getLine());
+        assertTrue(rejected.get(0).getError().startsWith("Некорректный JSON"));
+        List<BulkItemLineDto> lines = read(out);
+        assertEquals(List.of(1, 3), lines.stream().map(BulkItemLineDto::getLine).collect(Collectors.toList()));
+        assertEquals("Axe", lines.get(1).getItem().getName());
+    }
+
+    @Test
+    void forwardReportsUnprocessedRestOfMalformedArrayTest() throws IOException {
+        String body = "[{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true},\n"
+                + " {\"name\": \"Saw\",, \"available\": true},\n"
+                + " {\"name\": \"Axe\", \"description\": \"Axe\", \"available\": true}]";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        List<BulkItemResultDto> rejected = forwarder.forward(stream(body), out);
+
+        assertEquals(1, rejected.size());
+        assertEquals(2, rejected.get(0).getLine());
+        assertTrue(rejected.get(0).getError().startsWith("Некорректный JSON"));
+        assertTrue(rejected.get(0).getError().endsWith("остальные вещи массива не импортированы"));
+        assertEquals(1, read(out).size());
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<BulkItemLineDto> read(ByteArrayOutputStream out) throws IOException {
+        try (MappingIterator<BulkItemLineDto> lines = objectMapper.readerFor(BulkItemLineDto.class).readValues(out.toByteArray())) {
+            return lines.readAll();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemClientTest {
+    private static final AtomicReference<String> reportBody = new AtomicReference<>();
+    private static final HttpServer server = startServer();
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void importItemsMergesRejectedLinesTest() {
+        reportBody.set("{\"created\": 1, \"failed\": 0, \"results\": [{\"line\": 1, \"id\": 7}]}");
+
+        ResponseEntity<Object> response = itemClient.importItems(1L,
+                items("{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}\n{\"name\": \"\"}\n"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        BulkItemReportDto report = (BulkItemReportDto) response.getBody();
+        assertEquals(1, report.getCreated());
+        assertEquals(1, report.getFailed());
+        assertEquals(2, report.getResults().get(1).getLine());
+    }
+
+    @Test
+    void importItemsWithoutUpstreamReportTest() {
+        reportBody.set("");
+
+        ResponseEntity<Object> response = itemClient.importItems(1L,
+                items("{\"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}\n"));
+
+        assertEquals(502, response.getStatusCodeValue());
+        assertTrue(response.getBody() instanceof ErrorResponse);
+        assertEquals("Сервер не вернул отчет об импорте", ((ErrorResponse) response.getBody()).getError());
+    }
+
+    private InputStream items(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.createContext("/items/bulk", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                byte[] body = reportBody.get().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            return httpServer;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -10,18 +10,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMockMvc.perform;
 
 @WebMvcTest(controllers = ItemController.class)
 class ItemControllerTest {
@@ -80,9 +87,9 @@ class ItemControllerTest {
         long ownerId = 1L;
         ItemDto savedDto = getItemDto();
         ResponseEntity<Object> response = ResponseEntity.status(201).body(savedDto);
-        when(itemClient.createItem(anyLong(), any(ItemDto.class))).thenReturn(response);
+        when(itemClient.createItem(anyLong(), any(ItemDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/items")
+        perform(mockMvc, post("/items")
                         .content(objectMapper.writeValueAsString(createItemDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", ownerId))
@@ -90,6 +97,21 @@ class ItemControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(savedDto)));
     }
 
+    @Test
+    void importItemsTest() throws Exception {
+        BulkItemReportDto report = new BulkItemReportDto(1, 1, List.of(
+                BulkItemResultDto.created(1, 1L),
+                BulkItemResultDto.failed(2, "name: must not be blank")));
+        when(itemClient.importItems(eq(1L), any())).thenReturn(ResponseEntity.ok(report));
+
+        perform(mockMvc, post("/items/bulk")
+                        .content(objectMapper.writeValueAsString(createItemDto()) + "\n{\"name\": \"\"}\n")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(report)));
+    }
+
     @Test
     void updateItemTest() throws Exception {
         ItemDto patchItemDto = getPatchItemDto();
@@ -99,9 +121,9 @@ class ItemControllerTest {
         patchItemDto.setOwnerId(ownerId);
         updatedItemDto.setOwnerId(ownerId);
         ResponseEntity<Object> response = ResponseEntity.status(200).body(updatedItemDto);
-        when(itemClient.updateItem(anyLong(), anyLong(), any(ItemDto.class))).thenReturn(response);
+        when(itemClient.updateItem(anyLong(), anyLong(), any(ItemDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(patch("/items/{id}", itemId)
+        perform(mockMvc, patch("/items/{id}", itemId)
                         .content(objectMapper.writeValueAsString(patchItemDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", ownerId))
@@ -116,9 +138,9 @@ class ItemControllerTest {
         ItemDto dto = getItemDto();
         dto.setId(1L);
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(itemClient.getItemById(userId, itemId)).thenReturn(response);
+        when(itemClient.getItemById(userId, itemId)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/items/{id}", itemId)
+        perform(mockMvc, get("/items/{id}", itemId)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dto)));
@@ -130,23 +152,38 @@ class ItemControllerTest {
         String text = "test";
         List<ItemDto> dtoList = List.of(getItemDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
-        when(itemClient.searchItem(text, userId, 0, 10)).thenReturn(response);
+        when(itemClient.searchItem(text, userId, 0, 10)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/items/search")
+        perform(mockMvc, get("/items/search")
                         .param("text", text)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void suggestItemNamesTest() throws Exception {
+        long userId = 1L;
+        String prefix = "te";
+        List<String> names = List.of("TestName");
+        ResponseEntity<Object> response = ResponseEntity.status(200).body(names);
+        when(itemClient.suggestItemNames(prefix, userId, 10)).thenReturn(Mono.just(response));
+
+        perform(mockMvc, get("/items/search/suggest")
+                        .param("prefix", prefix)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(names)));
+    }
+
     @Test
     void addCommentTest() throws Exception {
         long itemId = 1L;
         long userId = 1L;
         CommentDto dto = getCommentDto();
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(itemClient.addComment(userId, itemId, dto)).thenReturn(response);
+        when(itemClient.addComment(userId, itemId, dto)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/items/{id}/comment", itemId)
+        perform(mockMvc, post("/items/{id}/comment", itemId)
                         .content(objectMapper.writeValueAsString(dto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", userId))
@@ -158,4 +195,22 @@ class ItemControllerTest {
     static class ErrorResponse {
         private final String error;
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailabilityTest() throws Exception {
+        long userId = 1L;
+        long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(2);
+        Map<String, Object> availability = Map.of("itemId", itemId, "intervals", List.of());
+        ResponseEntity<Object> response = ResponseEntity.status(200).body(availability);
+        when(itemClient.getItemAvailability(userId, itemId, from, to)).thenReturn(Mono.just(response));
+
+        perform(mockMvc, get("/items/{id}/availability", itemId)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(availability)));
+    }
+}
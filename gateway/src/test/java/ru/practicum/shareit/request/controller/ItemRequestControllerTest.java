@@ -8,12 +8,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.request.client.RequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
@@ -21,6 +26,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.AsyncMockMvc.perform;
 
 @WebMvcTest(controllers = ItemRequestController.class)
 class ItemRequestControllerTest {
@@ -46,9 +52,9 @@ class ItemRequestControllerTest {
         requestDto.setDescription("TestDescription");
         ItemRequestDto savedDto = getRequestDto();
         ResponseEntity<Object> response = ResponseEntity.status(200).body(savedDto);
-        when(requestClient.createItemRequest(anyLong(), any(ItemRequestDto.class))).thenReturn(response);
+        when(requestClient.createItemRequest(anyLong(), any(ItemRequestDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/requests")
+        perform(mockMvc, post("/requests")
                         .content(objectMapper.writeValueAsString(requestDto))
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("X-Sharer-User-Id", userId))
@@ -62,9 +68,9 @@ class ItemRequestControllerTest {
         long requestId = 1L;
         ItemRequestDto dto = getRequestDto();
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(requestClient.getItemRequest(userId, requestId)).thenReturn(response);
+        when(requestClient.getItemRequest(userId, requestId)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/requests/{id}", requestId)
+        perform(mockMvc, get("/requests/{id}", requestId)
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dto)));
@@ -75,9 +81,9 @@ class ItemRequestControllerTest {
         long userId = 1L;
         List<ItemRequestDto> dtoList = List.of(getRequestDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
-        when(requestClient.getForUserRequests(userId)).thenReturn(response);
+        when(requestClient.getForUserRequests(userId, 0, 10)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/requests")
+        perform(mockMvc, get("/requests")
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dtoList)));
@@ -90,13 +96,32 @@ class ItemRequestControllerTest {
         int size = 10;
         List<ItemRequestDto> dtoList = List.of(getRequestDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
-        when(requestClient.getNotForUserRequests(userId, from, size)).thenReturn(response);
+        when(requestClient.getNotForUserRequests(userId, from, size)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/requests/all")
+        perform(mockMvc, get("/requests/all")
                         .header("X-Sharer-User-Id", userId)
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size)))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dtoList)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void subscribeAnswersTest() throws Exception {
+        long userId = 1L;
+        String event = "id:5\nevent:answer\ndata:{\"id\":5}\n\n";
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        emitter.send(event.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_OCTET_STREAM);
+        emitter.complete();
+        when(requestClient.subscribeAnswers(userId))
+                .thenReturn(Mono.just(ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter)));
+
+        MvcResult result = perform(mockMvc, get("/requests/answers")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        assertEquals(event, result.getResponse().getContentAsString());
+    }
+}
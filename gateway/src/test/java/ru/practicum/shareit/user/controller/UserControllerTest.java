@@ -8,9 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -22,6 +24,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static ru.practicum.shareit.AsyncMockMvc.perform;
 
 @WebMvcTest(UserController.class)
 @AutoConfigureMockMvc
@@ -48,9 +51,9 @@ class UserControllerTest {
     void createUserTest() throws Exception {
         UserDto dto = getTestUserDto();
         ResponseEntity<Object> response = ResponseEntity.status(201).body(dto);
-        when(userClient.createUser(any(UserDto.class))).thenReturn(response);
+        when(userClient.createUser(any(UserDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/users")
+        perform(mockMvc, post("/users")
                         .content(objectMapper.writeValueAsString(dto))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isCreated())
@@ -63,9 +66,9 @@ class UserControllerTest {
         long userId = 1L;
 
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(userClient.updateUser(anyLong(), any(UserDto.class))).thenReturn(response);
+        when(userClient.updateUser(anyLong(), any(UserDto.class))).thenReturn(Mono.just(response));
 
-        mockMvc.perform(patch("/users/{id}", userId)
+        perform(mockMvc, patch("/users/{id}", userId)
                         .content(objectMapper.writeValueAsString(dto))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -77,21 +80,35 @@ class UserControllerTest {
         UserDto dto = getTestUserDto();
         long userId = 1L;
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dto);
-        when(userClient.getUserById(userId)).thenReturn(response);
+        when(userClient.getUserById(userId)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/users/{id}", userId))
+        perform(mockMvc, get("/users/{id}", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dto)));
     }
 
+    @Test
+    void getUserByIdNotModifiedTest() throws Exception {
+        long userId = 1L;
+        ResponseEntity<Object> response = ResponseEntity.status(200).eTag("\"v1\"")
+                .body(objectMapper.writeValueAsBytes(getTestUserDto()));
+        when(userClient.getUserById(userId)).thenReturn(Mono.just(response));
+
+        perform(mockMvc, get("/users/{id}", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getUserByIdUserNotFoundTest() throws Exception {
         long userId = 0L;
         String errorMessage = "User with id " + userId + " not found";
         ResponseEntity<Object> response = ResponseEntity.status(404).body(new ErrorResponse(errorMessage));
-        when(userClient.getUserById(userId)).thenReturn(response);
+        when(userClient.getUserById(userId)).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/users/{id}", userId))
+        perform(mockMvc, get("/users/{id}", userId))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error", is(errorMessage)));
     }
@@ -100,9 +117,9 @@ class UserControllerTest {
     void findAllTest() throws Exception {
         List<UserDto> dtoList = List.of(getTestUserDto());
         ResponseEntity<Object> response = ResponseEntity.status(200).body(dtoList);
-        when(userClient.findAll()).thenReturn(response);
+        when(userClient.findAll()).thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/users"))
+        perform(mockMvc, get("/users"))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dtoList)));
     }
@@ -112,7 +129,7 @@ class UserControllerTest {
         long userId = 1L;
         ResponseEntity<Object> response = ResponseEntity.status(200).build();
 
-        mockMvc.perform(delete("/users/{id}", userId))
+        perform(mockMvc, delete("/users/{id}", userId))
                 .andExpect(status().isOk());
     }
 
@@ -2,8 +2,13 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
@@ -15,6 +20,7 @@ import static ru.practicum.shareit.item.controller.ItemController.sharerUserId;
 @RequestMapping("/bookings")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final BookingService bookingService;
 
     @PostMapping
@@ -23,6 +29,12 @@ public class BookingController {
         return bookingService.createBooking(userId, bookingDto);
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingStatusResultDto> changeBookingStatuses(@RequestHeader(sharerUserId) long userId,
+                                                              @RequestBody BookingStatusChangeDto statusChangeDto) {
+        return bookingService.changeBookingStatuses(userId, statusChangeDto.getBookingIds(), statusChangeDto.isApproved());
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto changeBookingStatus(@RequestHeader(sharerUserId) long userId,
                                           @PathVariable long bookingId,
@@ -37,18 +49,34 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByBooker(@RequestHeader(sharerUserId) long bookerId,
-                                                @RequestParam(defaultValue = "ALL", required = false) String state,
-                                                @RequestParam(value = "from", defaultValue = "0") int from,
-                                                @RequestParam(value = "size", defaultValue = "10") int size) {
-        return bookingService.getBookingsByBooker(bookerId, state, from, size);
+    public ResponseEntity<List<BookingShortDto>> getBookingsByBooker(@RequestHeader(sharerUserId) long bookerId,
+                                                                @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                                @RequestParam(value = "from", defaultValue = "0") int from,
+                                                                @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                @RequestParam(required = false) String cursor) {
+        List<BookingShortDto> bookings = cursor == null
+                ? bookingService.getBookingsByBooker(bookerId, state, from, size)
+                : bookingService.getBookingsByBookerAfter(bookerId, state, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsByOwner(@RequestHeader(sharerUserId) long ownerId,
-                                               @RequestParam(defaultValue = "ALL", required = false) String state,
-                                               @RequestParam(value = "from", defaultValue = "0") int from,
-                                               @RequestParam(value = "size", defaultValue = "10") int size) {
-        return bookingService.getBookingsByOwner(ownerId, state, from, size);
+    public ResponseEntity<List<BookingShortDto>> getBookingsByOwner(@RequestHeader(sharerUserId) long ownerId,
+                                                               @RequestParam(defaultValue = "ALL", required = false) String state,
+                                                               @RequestParam(value = "from", defaultValue = "0") int from,
+                                                               @RequestParam(value = "size", defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        List<BookingShortDto> bookings = cursor == null
+                ? bookingService.getBookingsByOwner(ownerId, state, from, size)
+                : bookingService.getBookingsByOwnerAfter(ownerId, state, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
+    }
+
+    private ResponseEntity<List<BookingShortDto>> withNextCursor(List<BookingShortDto> bookings, int size) {
+        String nextCursor = BookingCursor.nextToken(bookings, size);
+        if (nextCursor == null) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, nextCursor).body(bookings);
     }
 }
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingShortDto {
+
+    private long id;
+    private ItemShort item;
+    private BookerShort booker;
+    private BookingStatus status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public BookingShortDto(long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                           long itemId, String itemName, long bookerId) {
+        this(id, new ItemShort(itemId, itemName), new BookerShort(bookerId), status, start, end);
+    }
+
+    public long getItemId() {
+        return item.getId();
+    }
+
+    public long getBookerId() {
+        return booker.getId();
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class ItemShort {
+        private long id;
+        private String name;
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class BookerShort {
+        private long id;
+    }
+}
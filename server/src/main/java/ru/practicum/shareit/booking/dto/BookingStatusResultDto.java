@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingStatusResultDto {
+    private long bookingId;
+    private BookingStatus status;
+    private String error;
+
+    public static BookingStatusResultDto changed(long bookingId, BookingStatus status) {
+        return new BookingStatusResultDto(bookingId, status, null);
+    }
+
+    public static BookingStatusResultDto failed(long bookingId, String error) {
+        return new BookingStatusResultDto(bookingId, null, error);
+    }
+}
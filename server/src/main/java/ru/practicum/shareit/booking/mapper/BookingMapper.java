@@ -23,6 +23,8 @@ public class BookingMapper {
                 user,
                 bookingDto.getStatus(),
                 bookingDto.getStart(),
-                bookingDto.getEnd());
+                bookingDto.getEnd(),
+                item.getOwnerId(),
+                null);
     }
 }
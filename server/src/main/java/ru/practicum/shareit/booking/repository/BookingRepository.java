@@ -1,45 +1,125 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
+    String SELECT_SHORT = "select new ru.practicum.shareit.booking.dto.BookingShortDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) from Booking b join b.item i";
+    String BEFORE_CURSOR = " and b.start <= :cursorStart and (b.start < :cursorStart or b.id < :cursorId)" +
+            " order by b.start desc, b.id desc";
 
-    List<Booking> findAllByBookerIdAndStatusIsOrderByStartDesc(long bookerId, BookingStatus bookingStatus, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.booker.id = ?1 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
 
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(long bookerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.booker.id = ?1 and b.status = ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByBookerIdAndStatusIsOrderByStartDesc(long bookerId, BookingStatus bookingStatus, Pageable pageable);
 
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(long bookerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.booker.id = ?1 and b.start > ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByBookerIdAndStartIsAfterOrderByStartDesc(long bookerId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking b where b.booker.id = ?1 and b.start < ?2 and b.end > ?2 order by b.start DESC")
-    List<Booking> findAllByBookerIdCurrent(long bookerId, LocalDateTime dateTimeStart, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.booker.id = ?1 and b.end < ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(long bookerId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking b where b.item.ownerId = ?1 order by b.start DESC")
-    List<Booking> findAllByOwnerId(long ownerId, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.booker.id = ?1 and b.start < ?2 and b.end > ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByBookerIdCurrent(long bookerId, LocalDateTime dateTimeStart, Pageable pageable);
 
-    @Query("select b from Booking b where b.item.ownerId = ?1 and b.status = ?2 order by b.start DESC")
-    List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.ownerId = ?1 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByOwnerId(long ownerId, Pageable pageable);
 
-    @Query("select b from Booking b where b.item.ownerId = ?1 and b.start > ?2 order by b.start DESC")
-    List<Booking> findAllByOwnerIdAndStartAfter(long ownerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.ownerId = ?1 and b.status = ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Pageable pageable);
 
-    @Query("select b from Booking b where b.item.ownerId = ?1 and b.end < ?2 order by b.start DESC")
-    List<Booking> findAllByOwnerIdAndEndBefore(long ownerId, LocalDateTime dateTime, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.ownerId = ?1 and b.start > ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByOwnerIdAndStartAfter(long ownerId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking b where b.item.ownerId = ?1 and b.start < ?2 and b.end > ?2 order by b.start DESC")
-    List<Booking> findAllByOwnerIdCurrent(long ownerId, LocalDateTime dateTimeStart, Pageable pageable);
+    @Query(SELECT_SHORT + " where b.ownerId = ?1 and b.end < ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByOwnerIdAndEndBefore(long ownerId, LocalDateTime dateTime, Pageable pageable);
 
-    Optional<Booking> findFirstByItemIdAndEndBeforeOrderByStartDesc(Long itemId, LocalDateTime now);
+    @Query(SELECT_SHORT + " where b.ownerId = ?1 and b.start < ?2 and b.end > ?2 order by b.start DESC, b.id DESC")
+    List<BookingShortDto> findAllByOwnerIdCurrent(long ownerId, LocalDateTime dateTimeStart, Pageable pageable);
 
-    Optional<Booking> findFirstByItemIdAndEndIsAfterOrderByStartAsc(Long itemId, LocalDateTime now);
+    @Query(SELECT_SHORT + " where b.booker.id = :userId" + BEFORE_CURSOR)
+    List<BookingShortDto> findBookerPage(long userId, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.booker.id = :userId and b.start < :now and b.end > :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findBookerPageCurrent(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.booker.id = :userId and b.end < :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findBookerPagePast(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.booker.id = :userId and b.start > :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findBookerPageFuture(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.booker.id = :userId and b.status = :status" + BEFORE_CURSOR)
+    List<BookingShortDto> findBookerPageByStatus(long userId, BookingStatus status, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.ownerId = :userId" + BEFORE_CURSOR)
+    List<BookingShortDto> findOwnerPage(long userId, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.ownerId = :userId and b.start < :now and b.end > :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findOwnerPageCurrent(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.ownerId = :userId and b.end < :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findOwnerPagePast(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.ownerId = :userId and b.start > :now" + BEFORE_CURSOR)
+    List<BookingShortDto> findOwnerPageFuture(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    @Query(SELECT_SHORT + " where b.ownerId = :userId and b.status = :status" + BEFORE_CURSOR)
+    List<BookingShortDto> findOwnerPageByStatus(long userId, BookingStatus status, LocalDateTime cursorStart, long cursorId, Pageable pageable);
+
+    default Optional<Booking> findFirstByItemIdAndEndBeforeOrderByStartDesc(Long itemId, LocalDateTime now) {
+        return findAllByItemIdEndedBefore(itemId, now, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItemIdAndEndIsAfterOrderByStartAsc(Long itemId, LocalDateTime now) {
+        return findAllByItemIdEndingAfter(itemId, now, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.end < ?2 order by b.start desc")
+    List<Booking> findAllByItemIdEndedBefore(long itemId, LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.end > ?2 order by b.start")
+    List<Booking> findAllByItemIdEndingAfter(long itemId, LocalDateTime now, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker where i.id in ?1 and b.end < ?2 " +
+            "and b.start = (select max(l.start) from Booking l where l.item = b.item and l.end < ?2) order by b.id")
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker where i.id in ?1 and b.end > ?2 " +
+            "and b.start = (select min(n.start) from Booking n where n.item = b.item and n.end > ?2) order by b.id")
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("select b from Booking b join fetch b.item join fetch b.booker where b.id in ?1")
+    List<Booking> findAllWithItemAndBookerByIdIn(Collection<Long> ids);
+
+    @Query("select count(b) > 0 from Booking b where b.item.id = ?1 and b.status in ?4 and b.start < ?3 and b.end > ?2")
+    boolean existsOverlapping(long itemId, LocalDateTime start, LocalDateTime end, Collection<BookingStatus> statuses);
+
+    @Query("select count(b) > 0 from Booking b where b.item.id = ?1 and b.id <> ?5 and b.status in ?4 " +
+            "and b.start < ?3 and b.end > ?2")
+    boolean existsOverlappingExcept(long itemId, LocalDateTime start, LocalDateTime end,
+                                    Collection<BookingStatus> statuses, long bookingId);
+
+    @Query("select distinct b.id from Booking b, Booking o where b.id in ?1 and o.item = b.item and o.id <> b.id " +
+            "and o.status in ?2 and o.start < b.end and o.end > b.start")
+    List<Long> findOverlappingIds(Collection<Long> ids, Collection<BookingStatus> statuses);
+
+    @Query("select new ru.practicum.shareit.item.dto.AvailabilityIntervalDto(b.start, b.end) from Booking b " +
+            "where b.item.id = ?1 and b.status in ?4 and b.start < ?3 and b.end > ?2 order by b.start, b.end")
+    List<AvailabilityIntervalDto> findBusyIntervals(long itemId, LocalDateTime from, LocalDateTime to, Collection<BookingStatus> statuses);
 
     Optional<Booking> findByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime end);
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
 
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 
 import java.util.List;
 
@@ -10,9 +13,15 @@ public interface BookingService {
 
     BookingDto changeBookingStatus(long userId, long bookingId, boolean approved);
 
+    List<BookingStatusResultDto> changeBookingStatuses(long userId, List<Long> bookingIds, boolean approved);
+
     BookingDto getBookingInfo(long userId, long bookingId);
 
-    List<BookingDto> getBookingsByBooker(long userId, String state, int from, int size);
+    List<BookingShortDto> getBookingsByBooker(long userId, String state, int from, int size);
+
+    List<BookingShortDto> getBookingsByOwner(long userId, String state, int from, int size);
+
+    List<BookingShortDto> getBookingsByBookerAfter(long userId, String state, BookingCursor cursor, int size);
 
-    List<BookingDto> getBookingsByOwner(long userId, String state, int from, int size);
+    List<BookingShortDto> getBookingsByOwnerAfter(long userId, String state, BookingCursor cursor, int size);
 }
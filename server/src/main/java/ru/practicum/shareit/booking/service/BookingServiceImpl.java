@@ -2,27 +2,44 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.FromSizeRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,19 +48,20 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final PlatformTransactionManager transactionManager;
     private final BookingMapper bookingMapper = new BookingMapper();
 
     @Override
     @Transactional
     public BookingDto createBooking(long bookerId, BookingDto bookingDto) {
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() -> {
-            log.warn("Вещь id {} не найдена", itemRepository.findById(bookingDto.getItemId()));
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(() -> {
+            log.warn("Вещь id {} не найдена", bookingDto.getItemId());
             throw new NotFoundException("Вещь не найдена");
         });
-        User user = userRepository.findById(bookerId).orElseThrow(() -> {
+        User user = userCache.findById(bookerId).orElseThrow(() -> {
             log.warn("Пользователь с id {} не найден", bookerId);
             throw new NotFoundException("Пользователь не найден");
         });
@@ -58,9 +76,20 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
             throw new BadRequestException("Время окончания заказа не может быть раньше начала");
         }
+        if (bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd(), BookingStatus.BLOCKING)) {
+            log.warn("Вещь с id {} уже забронирована на период {} - {}", item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+            throw new ConflictException("Вещь уже забронирована на выбранный период");
+        }
         bookingDto.setStatus(BookingStatus.WAITING);
+        Booking booking;
+        try {
+            booking = bookingRepository.saveAndFlush(bookingMapper.toModel(bookingDto, item, user));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Вещь с id {} уже забронирована на период {} - {}", item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+            throw new ConflictException("Вещь уже забронирована на выбранный период");
+        }
         log.info("Бронь создана");
-        return bookingMapper.toModelDto(bookingRepository.save(bookingMapper.toModel(bookingDto, item, user)));
+        return bookingMapper.toModelDto(booking);
     }
 
     @Override
@@ -79,12 +108,119 @@ public class BookingServiceImpl implements BookingService {
             log.warn("Резерв {} уже утвержден", bookingId);
             throw new BadRequestException("Вы не можете сменить статус у утвержденного резерва");
         }
+        if (approved && isSlotTaken(booking)) {
+            log.warn("Вещь с id {} уже забронирована на период {} - {}", item.getId(), booking.getStart(), booking.getEnd());
+            throw new ConflictException("Вещь уже забронирована на выбранный период");
+        }
         if (approved) {
             booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
-        return bookingMapper.toModelDto(bookingRepository.save(booking));
+        try {
+            return bookingMapper.toModelDto(bookingRepository.saveAndFlush(booking));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Резерв {} изменен параллельным запросом", bookingId);
+            throw new ConflictException("Статус резерва уже изменен другим запросом");
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Вещь с id {} уже забронирована на период {} - {}", item.getId(), booking.getStart(), booking.getEnd());
+            throw new ConflictException("Вещь уже забронирована на выбранный период");
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookingStatusResultDto> changeBookingStatuses(long userId, List<Long> bookingIds, boolean approved) {
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<BookingStatusResultDto> results = new ArrayList<>(ids.size());
+        List<Booking> changed = new ArrayList<>(ids.size());
+        Map<Long, Long> versions = new HashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            // Резервы остаются управляемыми до сброса, поэтому изменения уходят одним пакетом UPDATE без merge
+            transactionTemplate.executeWithoutResult(tx -> {
+                Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Booking::getId, Function.identity()));
+                // Пересечения проверяются до изменения резервов: запрос после них вызвал бы автосброс посреди цикла
+                Set<Long> takenSlots = approved ? findTakenSlots(bookings.values()) : Set.of();
+                for (Long bookingId : ids) {
+                    Booking booking = bookings.get(bookingId);
+                    if (booking == null) {
+                        log.warn("Резерв id {} не найден", bookingId);
+                        results.add(BookingStatusResultDto.failed(bookingId, "Резерв не найден"));
+                    } else if (booking.getOwnerId() != userId) {
+                        log.warn("Пользователь {} не имеент прав на подтверждение аренды резерва {}", userId, bookingId);
+                        results.add(BookingStatusResultDto.failed(bookingId, "У вас нет прав на подтверждение аренды этой вещи"));
+                    } else if (booking.getStatus() == BookingStatus.APPROVED) {
+                        log.warn("Резерв {} уже утвержден", bookingId);
+                        results.add(BookingStatusResultDto.failed(bookingId, "Вы не можете сменить статус у утвержденного резерва"));
+                    } else if (approved && (takenSlots.contains(bookingId) || overlapsApproved(booking, changed))) {
+                        log.warn("Вещь с id {} уже забронирована на период {} - {}", booking.getItem().getId(),
+                                booking.getStart(), booking.getEnd());
+                        results.add(BookingStatusResultDto.failed(bookingId, "Вещь уже забронирована на выбранный период"));
+                    } else {
+                        versions.put(bookingId, booking.getVersion());
+                        booking.setStatus(status);
+                        changed.add(booking);
+                        results.add(BookingStatusResultDto.changed(bookingId, status));
+                    }
+                }
+                bookingRepository.flush();
+            });
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.warn("Пакетное изменение резервов {} не удалось, резервы сохраняются по одному", ids);
+            // Hibernate уже увеличил версии при неудачном сбросе, для проверки по одному нужны прочитанные
+            changed.forEach(booking -> booking.setVersion(versions.get(booking.getId())));
+            Map<Long, BookingStatusResultDto> conflicts = saveEach(transactionTemplate, changed);
+            results.replaceAll(result -> conflicts.getOrDefault(result.getBookingId(), result));
+            changed.removeIf(booking -> conflicts.containsKey(booking.getId()));
+        }
+        log.info("Статус {} установлен для {} из {} резервов", status, changed.size(), ids.size());
+        return results;
+    }
+
+    private Map<Long, BookingStatusResultDto> saveEach(TransactionTemplate transactionTemplate, List<Booking> bookings) {
+        Map<Long, BookingStatusResultDto> conflicts = new HashMap<>();
+        for (Booking booking : bookings) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> bookingRepository.saveAndFlush(booking));
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Резерв {} изменен параллельным запросом", booking.getId());
+                conflicts.put(booking.getId(), BookingStatusResultDto.failed(booking.getId(),
+                        "Статус резерва уже изменен другим запросом"));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Вещь с id {} уже забронирована на период {} - {}", booking.getItem().getId(),
+                        booking.getStart(), booking.getEnd());
+                conflicts.put(booking.getId(), BookingStatusResultDto.failed(booking.getId(),
+                        "Вещь уже забронирована на выбранный период"));
+            }
+        }
+        return conflicts;
+    }
+
+    private Set<Long> findTakenSlots(Collection<Booking> bookings) {
+        List<Long> rejected = bookings.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.REJECTED)
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        if (rejected.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(bookingRepository.findOverlappingIds(rejected, BookingStatus.BLOCKING));
+    }
+
+    private boolean isSlotTaken(Booking booking) {
+        return booking.getStatus() == BookingStatus.REJECTED
+                && bookingRepository.existsOverlappingExcept(booking.getItem().getId(), booking.getStart(),
+                booking.getEnd(), BookingStatus.BLOCKING, booking.getId());
+    }
+
+    private static boolean overlapsApproved(Booking booking, List<Booking> approved) {
+        return booking.getStatus() == BookingStatus.REJECTED && approved.stream()
+                .anyMatch(other -> other.getItem().getId().equals(booking.getItem().getId())
+                        && other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()));
     }
 
     @Override
@@ -103,15 +239,15 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingsByBooker(long bookerId, String state, int from, int size) {
-        userRepository.findById(bookerId).orElseThrow(() -> {
+    public List<BookingShortDto> getBookingsByBooker(long bookerId, String state, int from, int size) {
+        if (!userCache.existsById(bookerId)) {
             log.warn("Пользователь с id {} не найден", bookerId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
 
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = FromSizeRequest.of(from, size);
 
-        List<Booking> bookings = new ArrayList<>();
+        List<BookingShortDto> bookings = new ArrayList<>();
         Sort sort = Sort.by(Sort.Direction.DESC, "start");
         switch (state) {
             case "ALL":
@@ -137,21 +273,19 @@ public class BookingServiceImpl implements BookingService {
                 String message = String.format("Unknown state: %S", state);
                 throw new UnsupportedStateException(message);
         }
-        return bookings.stream()
-                .map(bookingMapper::toModelDto)
-                .collect(Collectors.toList());
+        return bookings;
     }
 
     @Override
-    public List<BookingDto> getBookingsByOwner(long ownerId, String state, int from, int size) {
-        userRepository.findById(ownerId).orElseThrow(() -> {
+    public List<BookingShortDto> getBookingsByOwner(long ownerId, String state, int from, int size) {
+        if (!userCache.existsById(ownerId)) {
             log.warn("Пользователь с id {} не найден", ownerId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
 
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = FromSizeRequest.of(from, size);
 
-        List<Booking> bookings = new ArrayList<>();
+        List<BookingShortDto> bookings = new ArrayList<>();
         switch (state) {
             case "ALL":
                 bookings.addAll(bookingRepository.findAllByOwnerId(ownerId, pageable));
@@ -176,8 +310,84 @@ public class BookingServiceImpl implements BookingService {
                 String message = String.format("Unknown state: %S", state);
                 throw new UnsupportedStateException(message);
         }
-        return bookings.stream()
-                .map(bookingMapper::toModelDto)
-                .collect(Collectors.toList());
+        return bookings;
+    }
+
+    @Override
+    public List<BookingShortDto> getBookingsByBookerAfter(long bookerId, String state, BookingCursor cursor, int size) {
+        if (!userCache.existsById(bookerId)) {
+            log.warn("Пользователь с id {} не найден", bookerId);
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        Pageable pageable = PageRequest.of(0, size);
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
+
+        List<BookingShortDto> bookings;
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.findBookerPage(bookerId, start, id, pageable);
+                break;
+            case "CURRENT":
+                bookings = bookingRepository.findBookerPageCurrent(bookerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "PAST":
+                bookings = bookingRepository.findBookerPagePast(bookerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "FUTURE":
+                bookings = bookingRepository.findBookerPageFuture(bookerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "WAITING":
+                bookings = bookingRepository.findBookerPageByStatus(bookerId, BookingStatus.WAITING, start, id, pageable);
+                break;
+            case "REJECTED":
+                bookings = bookingRepository.findBookerPageByStatus(bookerId, BookingStatus.REJECTED, start, id, pageable);
+                break;
+            default:
+                log.warn("Неизестный статус {}", state);
+                String message = String.format("Unknown state: %S", state);
+                throw new UnsupportedStateException(message);
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<BookingShortDto> getBookingsByOwnerAfter(long ownerId, String state, BookingCursor cursor, int size) {
+        if (!userCache.existsById(ownerId)) {
+            log.warn("Пользователь с id {} не найден", ownerId);
+            throw new NotFoundException("Пользователь не найден");
+        }
+
+        Pageable pageable = PageRequest.of(0, size);
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
+
+        List<BookingShortDto> bookings;
+        switch (state) {
+            case "ALL":
+                bookings = bookingRepository.findOwnerPage(ownerId, start, id, pageable);
+                break;
+            case "CURRENT":
+                bookings = bookingRepository.findOwnerPageCurrent(ownerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "PAST":
+                bookings = bookingRepository.findOwnerPagePast(ownerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "FUTURE":
+                bookings = bookingRepository.findOwnerPageFuture(ownerId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case "WAITING":
+                bookings = bookingRepository.findOwnerPageByStatus(ownerId, BookingStatus.WAITING, start, id, pageable);
+                break;
+            case "REJECTED":
+                bookings = bookingRepository.findOwnerPageByStatus(ownerId, BookingStatus.REJECTED, start, id, pageable);
+                break;
+            default:
+                log.warn("Неизестный статус {}", state);
+                String message = String.format("Unknown state: %S", state);
+                throw new UnsupportedStateException(message);
+        }
+        return bookings;
     }
 }
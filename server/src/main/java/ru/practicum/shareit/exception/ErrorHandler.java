@@ -24,6 +24,13 @@ public class ErrorHandler {
         return new ErrorResponse(400, "Bad Request", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException(final ConflictException e) {
+        log.warn("409 {}", e.getMessage());
+        return new ErrorResponse(409, "Conflict", e.getMessage());
+    }
+
     @ExceptionHandler(UnsupportedStateException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handlerUnsupportedState(final UnsupportedStateException e) {
@@ -1,14 +1,28 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoExt;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/items")
@@ -17,12 +31,29 @@ import java.util.List;
 public class ItemController {
     public static final String sharerUserId = "X-Sharer-User-Id";
     private final ItemService service;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto createItem(@RequestHeader(sharerUserId) long userId, @RequestBody ItemDto itemDto) {
         return service.createItem(userId, itemDto);
     }
 
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public BulkItemReportDto importItems(@RequestHeader(sharerUserId) long userId, HttpServletRequest request) throws IOException {
+        try (MappingIterator<BulkItemLineDto> lines = objectMapper.readerFor(BulkItemLineDto.class)
+                .readValues(request.getInputStream())) {
+            BulkItemLines bulkItemLines = new BulkItemLines(lines);
+            BulkItemReportDto report = service.importItems(userId, bulkItemLines);
+            if (bulkItemLines.error == null) {
+                return report;
+            }
+            List<BulkItemResultDto> results = new ArrayList<>(report.getResults());
+            results.add(BulkItemResultDto.failed(bulkItemLines.lastLine + 1,
+                    "Некорректная строка импорта: " + bulkItemLines.error));
+            return new BulkItemReportDto(report.getCreated(), report.getFailed() + 1, results);
+        }
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId, @RequestBody ItemDto itemDto) {
         return service.updateItem(userId, itemId, itemDto);
@@ -41,6 +72,13 @@ public class ItemController {
         return service.getItemById(itemId, id);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return service.getItemAvailability(itemId, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> searchItem(@RequestParam String text,
                                     @RequestParam(value = "from", defaultValue = "0") int from,
@@ -48,9 +86,49 @@ public class ItemController {
         return service.searchItem(text, from, size);
     }
 
+    @GetMapping("/search/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(value = "size", defaultValue = "10") int size) {
+        return service.suggestItemNames(prefix, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(sharerUserId) long userId, @PathVariable long itemId,
                                  @RequestBody CommentDto commentDto) {
         return service.addComment(userId, itemId, commentDto);
     }
+
+    private static class BulkItemLines implements Iterator<BulkItemLineDto> {
+        private final MappingIterator<BulkItemLineDto> lines;
+        private BulkItemLineDto next;
+        private int lastLine;
+        private String error;
+
+        private BulkItemLines(MappingIterator<BulkItemLineDto> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && error == null) {
+                try {
+                    next = lines.hasNext() ? lines.next() : null;
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public BulkItemLineDto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BulkItemLineDto line = next;
+            next = null;
+            lastLine = line.getLine();
+            return line;
+        }
+    }
 }
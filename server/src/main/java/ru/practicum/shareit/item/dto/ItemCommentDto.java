@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class ItemCommentDto {
+    private final long itemId;
+    private final CommentDto comment;
+
+    public ItemCommentDto(long itemId, long id, String text, String authorName, LocalDateTime created) {
+        this.itemId = itemId;
+        this.comment = new CommentDto(id, text, authorName, created);
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(long itemId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemCommentDto(c.item.id, c.id, c.text, a.name, c.created) " +
+            "from Comment c join c.author a where c.item.id in ?1 order by c.created, c.id")
+    List<ItemCommentDto> findAllByItemIdIn(Collection<Long> itemIds);
 }
@@ -2,17 +2,33 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchView;
+import ru.practicum.shareit.request.feed.RequestItemView;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
     List<Item> findAllByOwnerIdOrderById(long userID, Pageable pageable);
 
-    @Query("select i from Item i where lower(i.name) like %?1% or lower(i.description) like %?1% " +
-            "and i.available=true")
-    List<Item> findByNameOrDescriptionLike(String text, Pageable pageable);
-
     List<Item> findAllByRequest_Id(Long requestId);
+
+    List<Item> findAllByRequest_IdIn(Collection<Long> requestIds);
+
+    @Query("select i.id as id, i.request.id as requestId from Item i where i.request.id in ?1")
+    List<RequestItemView> findAllRequestItemIds(Collection<Long> requestIds);
+
+    List<ItemSearchView> findAllByIdGreaterThanOrderById(long id, Pageable pageable);
+
+    @Query("select i.id from Item i where i.ownerId = ?1")
+    List<Long> findIdsByOwnerId(long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(long id);
 }
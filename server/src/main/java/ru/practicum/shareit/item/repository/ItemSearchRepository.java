@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchRepository {
+    List<Item> findByNameOrDescriptionLike(String text, Pageable pageable);
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+public class ItemSearchRepositoryImpl implements ItemSearchRepository {
+    private static final String TRIGRAM_ENGINE = "trigram";
+
+    private static final String LIKE_QUERY = "select i from Item i where i.available = true " +
+            "and (lower(i.name) like :pattern escape '\\' or lower(i.description) like :pattern escape '\\') " +
+            "order by case when lower(i.name) like :pattern escape '\\' then 0 else 1 end, i.id";
+
+    private static final String TRIGRAM_QUERY = "select i.* from items i where i.available = true " +
+            "and (i.name ilike :pattern escape '\\' or i.description ilike :pattern escape '\\') " +
+            "order by greatest(word_similarity(:text, i.name), word_similarity(:text, i.description)) desc, i.id";
+
+    private final boolean trigram;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ItemSearchRepositoryImpl(@Value("${shareit.search.engine:like}") String engine) {
+        this.trigram = TRIGRAM_ENGINE.equals(engine);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Item> findByNameOrDescriptionLike(String text, Pageable pageable) {
+        String pattern = "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        if (trigram) {
+            return em.createNativeQuery(TRIGRAM_QUERY, Item.class)
+                    .setParameter("pattern", pattern)
+                    .setParameter("text", text)
+                    .setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize())
+                    .getResultList();
+        }
+        return em.createQuery(LIKE_QUERY, Item.class)
+                .setParameter("pattern", pattern)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.RebuildableState;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+@Slf4j
+@Component
+public class ItemNameSuggester {
+    private final ItemRepository itemRepository;
+    private final RebuildableState<Trie> trie = new RebuildableState<>(new Trie());
+
+    public ItemNameSuggester(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Trie rebuilt = trie.rebuild(() -> {
+            Trie loaded = new Trie();
+            ItemSearchViews.forEach(itemRepository,
+                    item -> loaded.put(item.getId(), item.getName(), Boolean.TRUE.equals(item.getAvailable())));
+            return loaded;
+        });
+        log.info("Словарь подсказок по названиям вещей перестроен, вещей в словаре {}", rebuilt.suggestedNames.size());
+    }
+
+    public void index(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        TransactionUtils.afterCommit(() -> trie.update(names -> names.put(id, name, available)));
+    }
+
+    public void remove(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(itemIds);
+        TransactionUtils.afterCommit(() -> trie.update(names -> ids.forEach(names::remove)));
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        return trie.read(names -> names.suggest(key, size));
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase();
+    }
+
+    private static class Trie {
+        private final Map<Long, String> suggestedNames = new HashMap<>();
+        private final Node root = new Node();
+
+        private List<String> suggest(String key, int size) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            List<String> names = new ArrayList<>();
+            if (node != null) {
+                collect(node, names, size);
+            }
+            return names;
+        }
+
+        private void collect(Node node, List<String> names, int size) {
+            if (node.count > 0) {
+                names.add(node.name);
+            }
+            for (Node child : node.children.values()) {
+                if (names.size() >= size) {
+                    return;
+                }
+                collect(child, names, size);
+            }
+        }
+
+        private void put(long id, String name, boolean available) {
+            remove(id);
+            if (!available || name == null || normalize(name).isEmpty()) {
+                return;
+            }
+            Node node = root;
+            for (char c : normalize(name).toCharArray()) {
+                node = node.children.computeIfAbsent(c, ch -> new Node());
+            }
+            if (node.count++ == 0) {
+                node.name = name.trim();
+            }
+            suggestedNames.put(id, name);
+        }
+
+        private void remove(long id) {
+            String name = suggestedNames.remove(id);
+            if (name == null) {
+                return;
+            }
+            String key = normalize(name);
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                path.push(node);
+                node = node.children.get(key.charAt(i));
+            }
+            if (--node.count > 0) {
+                return;
+            }
+            node.name = null;
+            for (int i = key.length() - 1; i >= 0 && node.count == 0 && node.children.isEmpty(); i--) {
+                Node parent = path.pop();
+                parent.children.remove(key.charAt(i));
+                node = parent;
+            }
+        }
+    }
+
+    private static class Node {
+        private final NavigableMap<Character, Node> children = new TreeMap<>();
+        private String name;
+        private int count;
+    }
+}
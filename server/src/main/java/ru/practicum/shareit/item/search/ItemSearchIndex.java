@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.RebuildableState;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final String INDEX_ENGINE = "index";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final RebuildableState<Postings> postings = new RebuildableState<>(new Postings());
+
+    public ItemSearchIndex(ItemRepository itemRepository, @Value("${shareit.search.engine:like}") String engine) {
+        this.itemRepository = itemRepository;
+        this.enabled = INDEX_ENGINE.equals(engine);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Postings rebuilt = postings.rebuild(() -> {
+            Postings loaded = new Postings();
+            ItemSearchViews.forEach(itemRepository, item -> loaded.put(item.getId(), item.getName(),
+                    item.getDescription(), Boolean.TRUE.equals(item.getAvailable())));
+            return loaded;
+        });
+        log.info("Поисковый индекс вещей перестроен, вещей в индексе {}", rebuilt.indexedItems.size());
+    }
+
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        TransactionUtils.afterCommit(() -> postings.update(index -> index.put(id, name, description, available)));
+    }
+
+    public void remove(Collection<Long> itemIds) {
+        if (!enabled || itemIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(itemIds);
+        TransactionUtils.afterCommit(() -> postings.update(index -> ids.forEach(index::remove)));
+    }
+
+    public List<Long> search(String text, Pageable pageable) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return postings.read(index -> {
+            LongPostingList byName = match(index.nameTerms, tokens).intersect(index.availableItems);
+            LongPostingList byDescription = match(index.descriptionTerms, tokens).intersect(index.availableItems)
+                    .subtract(byName);
+            int total = byName.size() + byDescription.size();
+            List<Long> ids = new ArrayList<>((int) Math.min(pageable.getPageSize(), Math.max(0, total - pageable.getOffset())));
+            for (long i = pageable.getOffset(); i < total && ids.size() < pageable.getPageSize(); i++) {
+                ids.add(i < byName.size() ? byName.get((int) i) : byDescription.get((int) i - byName.size()));
+            }
+            return ids;
+        });
+    }
+
+    private LongPostingList match(NavigableMap<String, LongPostingList> terms, List<String> tokens) {
+        LongPostingList result = null;
+        for (String token : tokens) {
+            LongPostingList matches = LongPostingList.unionAll(
+                    terms.subMap(token, true, token + Character.MAX_VALUE, false).values());
+            result = result == null ? matches : result.intersect(matches);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase()))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private class Postings {
+        private final NavigableMap<String, LongPostingList> nameTerms = new TreeMap<>();
+        private final NavigableMap<String, LongPostingList> descriptionTerms = new TreeMap<>();
+        private final Map<Long, IndexedItem> indexedItems = new HashMap<>();
+        private final LongPostingList availableItems = new LongPostingList();
+
+        private void put(long id, String name, String description, boolean available) {
+            remove(id);
+            IndexedItem indexed = new IndexedItem(new HashSet<>(tokenize(name)), new HashSet<>(tokenize(description)));
+            indexed.nameTerms.forEach(term -> nameTerms.computeIfAbsent(term, t -> new LongPostingList()).add(id));
+            indexed.descriptionTerms.forEach(term -> descriptionTerms.computeIfAbsent(term, t -> new LongPostingList()).add(id));
+            if (available) {
+                availableItems.add(id);
+            }
+            indexedItems.put(id, indexed);
+        }
+
+        private void remove(long id) {
+            IndexedItem indexed = indexedItems.remove(id);
+            if (indexed == null) {
+                return;
+            }
+            indexed.nameTerms.forEach(term -> removePosting(nameTerms, term, id));
+            indexed.descriptionTerms.forEach(term -> removePosting(descriptionTerms, term, id));
+            availableItems.remove(id);
+        }
+
+        private void removePosting(Map<String, LongPostingList> terms, String term, long id) {
+            LongPostingList termPostings = terms.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static class IndexedItem {
+        private final Set<String> nameTerms;
+        private final Set<String> descriptionTerms;
+
+        IndexedItem(Set<String> nameTerms, Set<String> descriptionTerms) {
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+        }
+    }
+}
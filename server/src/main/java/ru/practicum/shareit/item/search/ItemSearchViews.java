@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+final class ItemSearchViews {
+    private static final int BATCH_SIZE = 1000;
+
+    private ItemSearchViews() {
+    }
+
+    static void forEach(ItemRepository itemRepository, Consumer<ItemSearchView> action) {
+        long lastId = 0;
+        List<ItemSearchView> batch;
+        do {
+            batch = itemRepository.findAllByIdGreaterThanOrderById(lastId, PageRequest.of(0, BATCH_SIZE));
+            for (ItemSearchView item : batch) {
+                action.accept(item);
+                lastId = item.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+}
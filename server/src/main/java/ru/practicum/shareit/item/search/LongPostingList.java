@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public class LongPostingList {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] ids;
+    private int size;
+
+    public LongPostingList() {
+        this(new long[INITIAL_CAPACITY], 0);
+    }
+
+    private LongPostingList(long[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        return ids[index];
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    public void add(long id) {
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return;
+        }
+        int insert = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+        ids[insert] = id;
+        size++;
+    }
+
+    public void remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+    }
+
+    public static LongPostingList unionAll(Collection<LongPostingList> lists) {
+        int total = 0;
+        for (LongPostingList list : lists) {
+            total += list.size;
+        }
+        long[] result = new long[total];
+        int k = 0;
+        for (LongPostingList list : lists) {
+            System.arraycopy(list.ids, 0, result, k, list.size);
+            k += list.size;
+        }
+        Arrays.sort(result);
+        int unique = 0;
+        for (int i = 0; i < total; i++) {
+            if (unique == 0 || result[unique - 1] != result[i]) {
+                result[unique++] = result[i];
+            }
+        }
+        return new LongPostingList(result, unique);
+    }
+
+    public LongPostingList intersect(LongPostingList other) {
+        long[] result = new long[Math.min(size, other.size)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            } else if (ids[i] > other.ids[j]) {
+                j++;
+            } else {
+                result[k++] = ids[i++];
+                j++;
+            }
+        }
+        return new LongPostingList(result, k);
+    }
+
+    public LongPostingList subtract(LongPostingList other) {
+        long[] result = new long[size];
+        int k = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j >= other.size || other.ids[j] != ids[i]) {
+                result[k++] = ids[i];
+            }
+        }
+        return new LongPostingList(result, k);
+    }
+
+    public void clear() {
+        ids = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, ids.length * 2));
+        }
+    }
+}
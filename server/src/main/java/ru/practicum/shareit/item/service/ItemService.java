@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoExt;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 public interface ItemService {
@@ -13,8 +18,14 @@ public interface ItemService {
 
     List<ItemDto> searchItem(String text, int from, int size);
 
+    List<String> suggestItemNames(String prefix, int size);
+
+    ItemAvailabilityDto getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
     ItemDto createItem(long userId, ItemDto itemDto);
 
+    BulkItemReportDto importItems(long userId, Iterator<BulkItemLineDto> lines);
+
     ItemDto updateItem(long userId, long itemId, ItemDto itemDto);
 
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
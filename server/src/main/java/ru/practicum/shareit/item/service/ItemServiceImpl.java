@@ -2,15 +2,27 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoExt;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -19,14 +31,27 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.answer.ItemRequestAnswerHub;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,22 +59,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int ID_BATCH_SIZE = 1000;
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
     private final ItemMapper itemMapper = new ItemMapper();
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper = new CommentMapper();
     private final BookingRepository bookingRepository;
     private final BookingMapper bookingMapper = new BookingMapper();
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestAnswerHub itemRequestAnswerHub;
+    private final PlatformTransactionManager transactionManager;
 
     @Transactional
     @Override
     public ItemDto createItem(long userId, ItemDto itemDto) {
-        userRepository.findById(userId).orElseThrow(() -> {
+        if (!userCache.existsById(userId)) {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
         ItemRequest itemRequest = null;
         if (itemDto.getRequestId() != null) {
             itemRequest = itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(() -> new NotFoundException("Запрос не найден"));
@@ -58,7 +92,102 @@ public class ItemServiceImpl implements ItemService {
         item.setRequest(itemRequest);
         item.setOwnerId(userId);
         log.info("Item created");
-        return itemMapper.toModelDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchIndex.index(item);
+        itemNameSuggester.index(item);
+        itemRequestFeed.addItem(item);
+        ItemDto createdItem = itemMapper.toModelDto(item);
+        if (itemRequest != null) {
+            itemRequestAnswerHub.publish(itemRequest.getRequester().getId(), createdItem);
+        }
+        return createdItem;
+    }
+
+    @Override
+    public BulkItemReportDto importItems(long userId, Iterator<BulkItemLineDto> lines) {
+        if (!userCache.existsById(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new NotFoundException("Пользователь не найден");
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<BulkItemResultDto> results = new ArrayList<>();
+        List<BulkItemLineDto> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (lines.hasNext()) {
+            chunk.add(lines.next());
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                results.addAll(importChunk(transactionTemplate, userId, chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(transactionTemplate, userId, chunk));
+        }
+        results.sort(Comparator.comparingInt(BulkItemResultDto::getLine));
+        int created = (int) results.stream().filter(result -> result.getId() != null).count();
+        log.info("Импортировано вещей: {}, с ошибками: {}", created, results.size() - created);
+        return new BulkItemReportDto(created, results.size() - created, results);
+    }
+
+    private List<BulkItemResultDto> importChunk(TransactionTemplate transactionTemplate, long userId,
+                                                List<BulkItemLineDto> chunk) {
+        try {
+            return transactionTemplate.execute(status -> saveChunk(userId, chunk));
+        } catch (DataAccessException e) {
+            log.warn("Не удалось сохранить пакет из {} вещей", chunk.size(), e);
+            return chunk.stream()
+                    .map(line -> BulkItemResultDto.failed(line.getLine(), "Не удалось сохранить вещь"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<BulkItemResultDto> saveChunk(long userId, List<BulkItemLineDto> chunk) {
+        Set<Long> requestIds = chunk.stream()
+                .map(BulkItemLineDto::getItem)
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Collections.emptyMap()
+                : itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<BulkItemResultDto> results = new ArrayList<>(chunk.size());
+        List<Integer> itemLines = new ArrayList<>(chunk.size());
+        List<Item> items = new ArrayList<>(chunk.size());
+        for (BulkItemLineDto line : chunk) {
+            ItemDto itemDto = line.getItem();
+            if (itemDto == null) {
+                results.add(BulkItemResultDto.failed(line.getLine(), "Вещь не указана"));
+                continue;
+            }
+            ItemRequest itemRequest = null;
+            if (itemDto.getRequestId() != null) {
+                itemRequest = requests.get(itemDto.getRequestId());
+                if (itemRequest == null) {
+                    results.add(BulkItemResultDto.failed(line.getLine(), "Запрос не найден"));
+                    continue;
+                }
+            }
+            Item item = itemMapper.toModel(itemDto);
+            item.setId(null);
+            item.setRequest(itemRequest);
+            item.setOwnerId(userId);
+            itemLines.add(line.getLine());
+            items.add(item);
+        }
+
+        List<Item> savedItems = itemRepository.saveAll(items);
+        for (int i = 0; i < savedItems.size(); i++) {
+            Item item = savedItems.get(i);
+            itemSearchIndex.index(item);
+            itemNameSuggester.index(item);
+            itemRequestFeed.addItem(item);
+            if (item.getRequest() != null) {
+                itemRequestAnswerHub.publish(item.getRequest().getRequester().getId(), itemMapper.toModelDto(item));
+            }
+            results.add(BulkItemResultDto.created(itemLines.get(i), item.getId()));
+        }
+        return results;
     }
 
     @Transactional
@@ -84,13 +213,16 @@ public class ItemServiceImpl implements ItemService {
         }
 
         log.info("Вещь {} обновлена", item);
-        return itemMapper.toModelDto(itemRepository.save(updItem));
+        updItem = itemRepository.save(updItem);
+        itemSearchIndex.index(updItem);
+        itemNameSuggester.index(updItem);
+        return itemMapper.toModelDto(updItem);
     }
 
     @Transactional
     @Override
     public CommentDto addComment(long userId, long itemId, CommentDto commentDto) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+        User user = userCache.findById(userId).orElseThrow(() -> {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
         });
@@ -120,7 +252,10 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDtoExt> getAllItemsOfOwner(long userId, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
         log.info("Вещь пользователя с id {} выгружены", userId);
-        return itemRepository.findAllByOwnerIdOrderById(userId, pageable).stream().map(itemMapper::toModelDtoExt).map(itemDtoExt -> getBookings(itemDtoExt, userId)).collect(Collectors.toList());
+        List<ItemDtoExt> itemDtoExts = itemRepository.findAllByOwnerIdOrderById(userId, pageable).stream().map(itemMapper::toModelDtoExt).collect(Collectors.toList());
+        setBookings(itemDtoExts);
+        setComments(itemDtoExts);
+        return itemDtoExts;
     }
 
     @Transactional(readOnly = true)
@@ -131,9 +266,68 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
+        if (itemSearchIndex.isEnabled()) {
+            List<Long> ids = itemSearchIndex.search(text, pageable);
+            Map<Long, Item> items = itemRepository.findAllById(ids).stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+            return ids.stream().map(items::get).filter(Objects::nonNull).map(itemMapper::toModelDto).collect(Collectors.toList());
+        }
         return itemRepository.findByNameOrDescriptionLike(text.toLowerCase(), pageable).stream().map(itemMapper::toModelDto).collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        return itemNameSuggester.suggest(prefix, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemAvailabilityDto getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше его окончания");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_AVAILABILITY_WINDOW.toDays() + " дней");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            log.warn("Вещь с id {} не найдена", itemId);
+            throw new NotFoundException("Вещь не найдена");
+        }
+        List<AvailabilityIntervalDto> busy = bookingRepository.findBusyIntervals(itemId, from, to, BookingStatus.BLOCKING);
+        log.info("Календарь доступности вещи с id {} выгружен", itemId);
+        return new ItemAvailabilityDto(itemId, from, to, sweep(busy, from, to));
+    }
+
+    private List<AvailabilityIntervalDto> sweep(List<AvailabilityIntervalDto> busy, LocalDateTime from, LocalDateTime to) {
+        List<AvailabilityIntervalDto> intervals = new ArrayList<>();
+        LocalDateTime cursor = from;
+        LocalDateTime busyStart = null;
+        for (AvailabilityIntervalDto booking : busy) {
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+            if (busyStart != null && !start.isAfter(cursor)) {
+                if (end.isAfter(cursor)) {
+                    cursor = end;
+                }
+                continue;
+            }
+            if (busyStart != null) {
+                intervals.add(new AvailabilityIntervalDto(busyStart, cursor, true));
+            }
+            if (start.isAfter(cursor)) {
+                intervals.add(new AvailabilityIntervalDto(cursor, start, false));
+            }
+            busyStart = start;
+            cursor = end;
+        }
+        if (busyStart != null) {
+            intervals.add(new AvailabilityIntervalDto(busyStart, cursor, true));
+        }
+        if (cursor.isBefore(to)) {
+            intervals.add(new AvailabilityIntervalDto(cursor, to, false));
+        }
+        return intervals;
+    }
+
     @Override
     public ItemDtoExt getBookings(ItemDtoExt itemDtoExt, long userId) {
         if (itemDtoExt.getOwnerId() == userId) {
@@ -149,8 +343,41 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDtoExt getComments(ItemDtoExt itemDtoExt, long itemId) {
-        List<CommentDto> commentDto = commentRepository.findAllByItemId(itemId).stream().map(commentMapper::toModelDto).collect(Collectors.toList());
-        itemDtoExt.setComments(commentDto);
+        itemDtoExt.setComments(commentRepository.findAllByItemIdIn(List.of(itemId)).stream()
+                .map(ItemCommentDto::getComment)
+                .collect(Collectors.toList()));
         return itemDtoExt;
     }
+
+    private void setBookings(List<ItemDtoExt> itemDtoExts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = itemDtoExts.stream().map(ItemDtoExt::getId).collect(Collectors.toList());
+        Map<Long, BookingDto> lastBookings = new HashMap<>();
+        Map<Long, BookingDto> nextBookings = new HashMap<>();
+        for (int i = 0; i < itemIds.size(); i += ID_BATCH_SIZE) {
+            List<Long> batch = itemIds.subList(i, Math.min(i + ID_BATCH_SIZE, itemIds.size()));
+            putFirstByItem(lastBookings, bookingRepository.findLastBookingsByItemIds(batch, now));
+            putFirstByItem(nextBookings, bookingRepository.findNextBookingsByItemIds(batch, now));
+        }
+        itemDtoExts.forEach(itemDtoExt -> {
+            itemDtoExt.setLastBooking(lastBookings.get(itemDtoExt.getId()));
+            itemDtoExt.setNextBooking(nextBookings.get(itemDtoExt.getId()));
+        });
+    }
+
+    private void setComments(List<ItemDtoExt> itemDtoExts) {
+        List<Long> itemIds = itemDtoExts.stream().map(ItemDtoExt::getId).collect(Collectors.toList());
+        Map<Long, List<CommentDto>> commentsByItem = new HashMap<>();
+        for (int i = 0; i < itemIds.size(); i += ID_BATCH_SIZE) {
+            List<Long> batch = itemIds.subList(i, Math.min(i + ID_BATCH_SIZE, itemIds.size()));
+            commentRepository.findAllByItemIdIn(batch).forEach(itemComment -> commentsByItem
+                    .computeIfAbsent(itemComment.getItemId(), id -> new ArrayList<>())
+                    .add(itemComment.getComment()));
+        }
+        itemDtoExts.forEach(itemDtoExt -> itemDtoExt.setComments(commentsByItem.getOrDefault(itemDtoExt.getId(), new ArrayList<>())));
+    }
+
+    private void putFirstByItem(Map<Long, BookingDto> bookingsByItem, List<Booking> bookings) {
+        bookings.forEach(booking -> bookingsByItem.putIfAbsent(booking.getItem().getId(), bookingMapper.toModelDto(booking)));
+    }
 }
@@ -0,0 +1,200 @@
+package ru.practicum.shareit.request.answer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ItemRequestAnswerHub {
+    private static final String ANSWER_EVENT = "answer";
+
+    private final long timeout;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-request-answers");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService sender;
+
+    public ItemRequestAnswerHub(@Value("${shareit.requests.answers.timeout:1800000}") long timeout,
+                                @Value("${shareit.requests.answers.heartbeat:15000}") long heartbeat,
+                                @Value("${shareit.requests.answers.queue-capacity:100}") int queueCapacity,
+                                @Value("${shareit.requests.answers.send-threads:4}") int sendThreads,
+                                @Value("${shareit.requests.answers.send-timeout:5000}") long sendTimeout) {
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeout);
+        // У каждого подписчика не больше одной задачи отправки в очереди, поэтому очередь пула
+        // ограничена числом подписчиков и отказ возможен только после остановки
+        this.sender = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "item-request-answers-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::dropStalledSubscribers, sendTimeout, sendTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        log.info("Пользователь с id {} подписался на ответы на свои запросы", userId);
+        return emitter;
+    }
+
+    public void publish(long requesterId, ItemDto item) {
+        TransactionUtils.afterCommit(() -> send(requesterId, () -> SseEmitter.event()
+                .id(String.valueOf(item.getId()))
+                .name(ANSWER_EVENT)
+                .data(item, MediaType.APPLICATION_JSON)));
+    }
+
+    int subscriberCount(long userId) {
+        return subscribers.getOrDefault(userId, Set.of()).size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.dropIfStalled(now)));
+    }
+
+    private void send(long userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        subscribers.getOrDefault(userId, Set.of()).forEach(subscriber -> subscriber.enqueue(event.get()));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped = false;
+        private long sendingSince;
+        private boolean sending;
+
+        private Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!events.offer(event)) {
+                log.warn("Подписчик с id {} не успевает получать события, подписка закрыта", userId);
+                dropped = true;
+                unsubscribe(this);
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            // Подписчику, у которого уже идёт отправка, пульс не нужен: соединение и так не простаивает
+            if (!draining.get() && events.isEmpty()) {
+                events.offer(SseEmitter.event().comment(""));
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private synchronized void dropIfStalled(long now) {
+            // Эмиттер занят зависшей записью, поэтому закрывает его поток отправки, когда запись
+            // завершится по таймауту записи контейнера; общий поток пула не прерываем
+            if (sending && !dropped && now - sendingSince > sendTimeoutNanos) {
+                log.warn("Отправка события пользователю с id {} зависла, подписка закрыта", userId);
+                dropped = true;
+                unsubscribe(this);
+            }
+        }
+
+        private synchronized void sending(boolean active) {
+            sending = active;
+            sendingSince = System.nanoTime();
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!dropped && (event = events.poll()) != null) {
+                    sending(true);
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        sending(false);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписка пользователя с id {} закрыта: {}", userId, e.getMessage());
+                dropped = true;
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (dropped) {
+                events.clear();
+                emitter.complete();
+            } else if (!events.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
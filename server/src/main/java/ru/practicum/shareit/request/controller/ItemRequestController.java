@@ -2,7 +2,9 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -22,8 +24,10 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getForUserRequests(@RequestHeader(sharerUserId) Long userId) {
-        return itemRequestService.getForUserRequests(userId);
+    public List<ItemRequestDto> getForUserRequests(@RequestHeader(sharerUserId) Long userId,
+                                                   @RequestParam(defaultValue = "0") int from,
+                                                   @RequestParam(defaultValue = "10") int size) {
+        return itemRequestService.getForUserRequests(userId, from, size);
     }
 
     @GetMapping("/all")
@@ -33,6 +37,11 @@ public class ItemRequestController {
         return itemRequestService.getNotForUserRequests(userId, from, size);
     }
 
+    @GetMapping(path = "/answers", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeAnswers(@RequestHeader(sharerUserId) Long userId) {
+        return itemRequestService.subscribeAnswers(userId);
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequest(@RequestHeader(sharerUserId) Long userId, @PathVariable Long requestId) {
         return itemRequestService.getItemRequest(userId, requestId);
@@ -0,0 +1,173 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.util.RebuildableState;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+@Slf4j
+@Component
+public class ItemRequestFeed {
+    private static final int ID_BATCH_SIZE = 1000;
+    private static final Comparator<Node> NEWEST_FIRST = Comparator.comparing((Node node) -> node.created)
+            .thenComparingLong(node -> node.id)
+            .reversed();
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+    private final RebuildableState<Feed> feed = new RebuildableState<>(new Feed(false));
+
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                           @Value("${shareit.requests.feed.capacity:10000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Feed rebuilt = feed.rebuild(() -> {
+            Feed loaded = new Feed(true);
+            List<ItemRequest> requests = itemRequestRepository.findAllByOrderByCreatedDescIdDesc(PageRequest.of(0, capacity));
+            requests.forEach(request -> loaded.put(new Node(request.getId(), request.getDescription(),
+                    request.getRequester().getId(), request.getCreated())));
+            List<Long> requestIds = new ArrayList<>(loaded.nodes.keySet());
+            for (int i = 0; i < requestIds.size(); i += ID_BATCH_SIZE) {
+                List<Long> batch = requestIds.subList(i, Math.min(i + ID_BATCH_SIZE, requestIds.size()));
+                itemRepository.findAllRequestItemIds(batch)
+                        .forEach(item -> loaded.nodes.get(item.getRequestId()).itemIds.add(item.getId()));
+            }
+            loaded.complete = requests.size() < capacity;
+            return loaded;
+        });
+        log.info("Лента запросов перестроена, запросов в ленте {}", rebuilt.nodes.size());
+    }
+
+    public void add(ItemRequest request) {
+        long id = request.getId();
+        String description = request.getDescription();
+        long requesterId = request.getRequester().getId();
+        LocalDateTime created = request.getCreated();
+        TransactionUtils.afterCommit(() -> feed.update(state -> state.add(new Node(id, description, requesterId, created))));
+    }
+
+    public void addItem(Item item) {
+        if (item.getRequest() == null) {
+            return;
+        }
+        long requestId = item.getRequest().getId();
+        long itemId = item.getId();
+        TransactionUtils.afterCommit(() -> feed.update(state -> state.addItem(requestId, itemId)));
+    }
+
+    public void removeRequester(long requesterId) {
+        TransactionUtils.afterCommit(() -> feed.update(state -> state.removeRequester(requesterId)));
+    }
+
+    public Optional<List<ItemRequestFeedEntry>> page(long viewerId, int from, int size) {
+        return feed.read(state -> state.page(viewerId, from, size));
+    }
+
+    private class Feed {
+        private final NavigableSet<Node> entries = new TreeSet<>(NEWEST_FIRST);
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private final boolean loaded;
+        private boolean complete = false;
+
+        private Feed(boolean loaded) {
+            this.loaded = loaded;
+        }
+
+        private void add(Node node) {
+            put(node);
+            while (nodes.size() > capacity) {
+                nodes.remove(entries.pollLast().id);
+                complete = false;
+            }
+        }
+
+        private void addItem(long requestId, long itemId) {
+            Node node = nodes.get(requestId);
+            if (node != null && !node.itemIds.contains(itemId)) {
+                node.itemIds.add(itemId);
+            }
+        }
+
+        private void removeRequester(long requesterId) {
+            entries.removeIf(node -> node.requesterId == requesterId);
+            nodes.values().removeIf(node -> node.requesterId == requesterId);
+        }
+
+        private Optional<List<ItemRequestFeedEntry>> page(long viewerId, int from, int size) {
+            if (!loaded) {
+                return Optional.empty();
+            }
+            List<ItemRequestFeedEntry> page = new ArrayList<>(size);
+            int skip = from;
+            for (Node node : entries) {
+                if (page.size() >= size) {
+                    break;
+                }
+                if (node.requesterId == viewerId) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                page.add(node.toEntry());
+            }
+            if (page.size() < size && !complete) {
+                return Optional.empty();
+            }
+            return Optional.of(page);
+        }
+
+        private void put(Node node) {
+            Node old = nodes.put(node.id, node);
+            if (old != null) {
+                entries.remove(old);
+                node.itemIds.addAll(old.itemIds);
+            }
+            entries.add(node);
+        }
+    }
+
+    private static class Node {
+        private final long id;
+        private final String description;
+        private final long requesterId;
+        private final LocalDateTime created;
+        private final List<Long> itemIds = new ArrayList<>();
+
+        private Node(long id, String description, long requesterId, LocalDateTime created) {
+            this.id = id;
+            this.description = description;
+            this.requesterId = requesterId;
+            this.created = created;
+        }
+
+        private ItemRequestFeedEntry toEntry() {
+            return new ItemRequestFeedEntry(id, description, requesterId, created, List.copyOf(itemIds));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ItemRequestFeedEntry {
+    private final long id;
+    private final String description;
+    private final long requesterId;
+    private final LocalDateTime created;
+    private final List<Long> itemIds;
+}
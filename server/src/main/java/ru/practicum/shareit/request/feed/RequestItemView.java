@@ -0,0 +1,7 @@
+package ru.practicum.shareit.request.feed;
+
+public interface RequestItemView {
+    Long getId();
+
+    Long getRequestId();
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.List;
@@ -7,9 +8,11 @@ import java.util.List;
 public interface ItemRequestService {
     ItemRequestDto createItemRequest(ItemRequestDto itemRequestDto, Long userId);
 
-    List<ItemRequestDto> getForUserRequests(Long userId);
+    List<ItemRequestDto> getForUserRequests(Long userId, int from, int size);
 
     List<ItemRequestDto> getNotForUserRequests(long userId, int from, int size);
 
     ItemRequestDto getItemRequest(Long userId, Long requestId);
+
+    SseEmitter subscribeAnswers(long userId);
 }
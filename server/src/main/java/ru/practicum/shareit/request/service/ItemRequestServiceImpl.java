@@ -2,22 +2,32 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.answer.ItemRequestAnswerHub;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.feed.ItemRequestFeedEntry;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.FromSizeRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,15 +35,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRequestMapper itemRequestMapper = new ItemRequestMapper();
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper = new ItemMapper();
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestAnswerHub itemRequestAnswerHub;
 
     @Transactional
     @Override
     public ItemRequestDto createItemRequest(ItemRequestDto itemRequestDto, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+        User user = userCache.findById(userId).orElseThrow(() -> {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
         });
@@ -42,60 +54,58 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ;
         ;
         itemRequest = itemRequestRepository.save(itemRequest);
+        itemRequestFeed.add(itemRequest);
         return itemRequestMapper.toModelDto(itemRequest);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemRequestDto> getForUserRequests(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+    public List<ItemRequestDto> getForUserRequests(Long userId, int from, int size) {
+        if (!userCache.existsById(userId)) {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
+
+        Pageable pageable = FromSizeRequest.of(from, size);
 
-        List<ItemRequestDto> itemRequestsDto = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId).stream()
+        List<ItemRequestDto> itemRequestsDto = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId, pageable).stream()
                 .map(itemRequestMapper::toModelDto)
                 .collect(Collectors.toList());
 
-        itemRequestsDto.forEach(itemRequestDto -> itemRequestDto.setItems(itemRepository.findAllByRequest_Id(itemRequestDto.getId()).stream()
-                        .map(itemMapper::toModelDto)
-                        .collect(Collectors.toList())
-                )
-        );
-
+        setItems(itemRequestsDto);
         return itemRequestsDto;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemRequestDto> getNotForUserRequests(long userId, int from, int size) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+        if (!userCache.existsById(userId)) {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
+
+        Optional<List<ItemRequestFeedEntry>> feedPage = itemRequestFeed.page(userId, from, size);
+        if (feedPage.isPresent()) {
+            return fromFeed(feedPage.get());
+        }
 
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = FromSizeRequest.of(from, size);
 
         List<ItemRequestDto> itemRequestsDto = itemRequestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(userId, pageable).stream()
                 .map(itemRequestMapper::toModelDto)
                 .collect(Collectors.toList());
 
-        itemRequestsDto.forEach(itemRequestDto -> itemRequestDto.setItems(itemRepository.findAllByRequest_Id(itemRequestDto.getId()).stream()
-                        .map(itemMapper::toModelDto)
-                        .collect(Collectors.toList())
-                )
-        );
-
+        setItems(itemRequestsDto);
         return itemRequestsDto;
     }
 
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto getItemRequest(Long userId, Long requestId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+        if (!userCache.existsById(userId)) {
             log.warn("Пользователь с id {} не найден", userId);
             throw new NotFoundException("Пользователь не найден");
-        });
+        }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
             log.warn("Запрос с id {} не найден", userId);
@@ -109,4 +119,44 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         );
         return itemRequestDto;
     }
+
+    @Transactional(readOnly = true)
+    @Override
+    public SseEmitter subscribeAnswers(long userId) {
+        if (!userCache.existsById(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new NotFoundException("Пользователь не найден");
+        }
+        return itemRequestAnswerHub.subscribe(userId);
+    }
+
+    private List<ItemRequestDto> fromFeed(List<ItemRequestFeedEntry> entries) {
+        List<Long> itemIds = entries.stream()
+                .flatMap(entry -> entry.getItemIds().stream())
+                .collect(Collectors.toList());
+        Map<Long, ItemDto> items = itemIds.isEmpty() ? Map.of() : itemRepository.findAllById(itemIds).stream()
+                .map(itemMapper::toModelDto)
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return entries.stream()
+                .map(entry -> new ItemRequestDto(entry.getId(),
+                        entry.getDescription(),
+                        entry.getRequesterId(),
+                        entry.getCreated(),
+                        entry.getItemIds().stream()
+                                .map(items::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    private void setItems(List<ItemRequestDto> itemRequestsDto) {
+        if (itemRequestsDto.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemRequestsDto.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequest = itemRepository.findAllByRequest_IdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(itemMapper::toModelDto, Collectors.toList())));
+        itemRequestsDto.forEach(itemRequestDto -> itemRequestDto.setItems(itemsByRequest.getOrDefault(itemRequestDto.getId(), new ArrayList<>())));
+    }
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class UserCache implements MeterBinder {
+    private static final String CACHE_NAME = "users";
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> cache;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${shareit.users.cache.max-size:10000}") long maxSize,
+                     @Value("${shareit.users.cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(load(id)).map(UserCache::copy);
+    }
+
+    public boolean existsById(long id) {
+        return load(id) != null;
+    }
+
+    public void evict(long id) {
+        cache.invalidate(id);
+        TransactionUtils.afterCommit(() -> cache.invalidate(id));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private User load(long id) {
+        return cache.get(id, key -> userRepository.findDetachedById(key).orElse(null));
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail());
+    }
+}
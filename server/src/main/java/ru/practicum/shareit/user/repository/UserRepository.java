@@ -1,9 +1,14 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 @RestController
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("select new ru.practicum.shareit.user.model.User(u.id, u.name, u.email) from User u where u.id = ?1")
+    Optional<User> findDetachedById(long id);
 }
@@ -5,11 +5,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionUtils;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +28,12 @@ public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper = new UserMapper();
     private final UserRepository repository;
+    private final ItemRequestFeed itemRequestFeed;
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemNameSuggester itemNameSuggester;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Transactional(readOnly = true)
     @Override
@@ -32,7 +46,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public User getUserById(long id) {
         log.info("Пользователь с id {} выгружен", id);
-        return repository.findById(id).orElseThrow(() -> {
+        return userCache.findById(id).orElseThrow(() -> {
             log.warn("Пользователь с id {} не найден", id);
             throw new NotFoundException("Пользователь не найден");
         });
@@ -60,6 +74,7 @@ public class UserServiceImpl implements UserService {
             updUser.setName(user.getName());
         }
         updUser = repository.save(updUser);
+        userCache.evict(id);
         log.info("Пользователь с id {} обновлен", id);
         return updUser;
     }
@@ -69,7 +84,13 @@ public class UserServiceImpl implements UserService {
     public User deleteUser(long id) {
         Optional<User> user = repository.findById(id);
         log.info("Пользователь с id {} удалён", id);
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
         repository.deleteById(id);
+        userCache.evict(id);
+        itemRequestFeed.removeRequester(id);
+        itemSearchIndex.remove(itemIds);
+        itemNameSuggester.remove(itemIds);
+        TransactionUtils.afterCommit(() -> itemIds.forEach(itemId -> entityManagerFactory.getCache().evict(Item.class, itemId)));
         return user.get();
     }
 }
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.util;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import javax.cache.Cache;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+    public static final String REGION_PREFIX = "shareit.cache.";
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+    private static final String DEFAULT_TTL = "10m";
+
+    private Map<?, ?> configValues = Map.of();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.configValues = configValues;
+        super.prepareForUse(settings, configValues);
+    }
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map properties) {
+        return URI.create("shareit-" + UUID.randomUUID());
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(Long.parseLong(setting(regionName, "max-size", String.valueOf(DEFAULT_MAX_SIZE)))));
+        configuration.setExpireAfterWrite(OptionalLong.of(DurationStyle.detectAndParse(setting(regionName, "ttl", DEFAULT_TTL)).toNanos()));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    private String setting(String regionName, String key, String defaultValue) {
+        Object value = configValues.get(REGION_PREFIX + regionName + "." + key);
+        return value == null ? defaultValue : value.toString().trim();
+    }
+}
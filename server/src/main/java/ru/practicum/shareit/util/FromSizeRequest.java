@@ -0,0 +1,32 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+public class FromSizeRequest extends PageRequest {
+    private final int from;
+
+    protected FromSizeRequest(int from, int size, Sort sort) {
+        super(from / size, size, sort);
+        this.from = from;
+    }
+
+    public static FromSizeRequest of(int from, int size) {
+        return new FromSizeRequest(from, size, Sort.unsorted());
+    }
+
+    @Override
+    public long getOffset() {
+        return from;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && obj instanceof FromSizeRequest && from == ((FromSizeRequest) obj).from;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + from;
+    }
+}
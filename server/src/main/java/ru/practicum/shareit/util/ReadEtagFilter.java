@@ -0,0 +1,33 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+@Component
+public class ReadEtagFilter extends ShallowEtagHeaderFilter {
+    private static final Pattern CACHEABLE_PATHS = Pattern.compile("/(items/\\d+|items/search|users/\\d+|requests/\\d+)");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isAsyncDispatch(request)) {
+            response.addHeader(HttpHeaders.VARY, "X-Sharer-User-Id");
+        }
+        super.doFilterInternal(request, response, filterChain);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CACHEABLE_PATHS.matcher(request.getRequestURI()).matches();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class RebuildableState<T> {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private T state;
+    private List<Consumer<T>> pendingUpdates;
+
+    public RebuildableState(T initial) {
+        this.state = initial;
+    }
+
+    public <R> R read(Function<T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void update(Consumer<T> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(state);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T rebuild(Supplier<T> loader) {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        T rebuilt = null;
+        try {
+            rebuilt = loader.get();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    for (Consumer<T> update : pendingUpdates) {
+                        update.accept(rebuilt);
+                    }
+                    state = rebuilt;
+                }
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return rebuilt;
+    }
+}
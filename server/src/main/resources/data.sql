@@ -10,13 +10,8 @@ delete
 from users;
 
 
-ALTER TABLE comments
-    ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE bookings
-    ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE users
-    ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE items
-    ALTER COLUMN ID RESTART WITH 1;
-ALTER TABLE requests
-    ALTER COLUMN ID RESTART WITH 1;
\ No newline at end of file
+ALTER SEQUENCE comments_seq RESTART WITH 1;
+ALTER SEQUENCE bookings_seq RESTART WITH 1;
+ALTER SEQUENCE users_seq RESTART WITH 1;
+ALTER SEQUENCE items_seq RESTART WITH 1;
+ALTER SEQUENCE requests_seq RESTART WITH 1;
\ No newline at end of file
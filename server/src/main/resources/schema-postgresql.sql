@@ -0,0 +1,54 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING gin (description gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO '
+DECLARE
+    candidate RECORD;
+    kept_id   BIGINT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_no_overlap'') THEN
+        -- Bookings already overlapping are resolved per item: an approved booking wins over a waiting one,
+        -- otherwise the earliest created one wins, and every booking that still overlaps a kept one is rejected
+        FOR candidate IN SELECT id, item_id, status, start_booking, end_booking
+                         FROM bookings
+                         WHERE status IN (''WAITING'', ''APPROVED'')
+                         ORDER BY item_id, status <> ''APPROVED'', id
+            LOOP
+                SELECT o.id
+                INTO kept_id
+                FROM bookings o
+                WHERE o.item_id = candidate.item_id
+                  AND o.status IN (''WAITING'', ''APPROVED'')
+                  AND (o.status <> ''APPROVED'', o.id) < (candidate.status <> ''APPROVED'', candidate.id)
+                  AND o.start_booking < candidate.end_booking
+                  AND o.end_booking > candidate.start_booking
+                ORDER BY o.status <> ''APPROVED'', o.id
+                LIMIT 1;
+                IF kept_id IS NOT NULL THEN
+                    UPDATE bookings SET status = ''REJECTED'', version = version + 1 WHERE id = candidate.id;
+                    RAISE WARNING ''bookings_no_overlap: booking % (% %) rejected, overlaps booking %'',
+                        candidate.id, candidate.status, tsrange(candidate.start_booking, candidate.end_booking), kept_id;
+                END IF;
+            END LOOP;
+        ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (
+            item_id WITH =,
+            tsrange(start_booking, end_booking, ''[)'') WITH &&
+        ) WHERE (status IN (''WAITING'', ''APPROVED''));
+    END IF;
+END';
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('requests_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM requests), (SELECT last_value FROM requests_seq)));
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM items), (SELECT last_value FROM items_seq)));
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT last_value FROM bookings_seq)));
+SELECT setval('comments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM comments), (SELECT last_value FROM comments_seq)));
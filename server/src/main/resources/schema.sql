@@ -1,13 +1,19 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT       NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id    BIGINT       NOT NULL PRIMARY KEY,
     name  VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     description  VARCHAR                     NOT NULL,
     requester_id BIGINT                      NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -15,7 +21,7 @@ CREATE TABLE IF NOT EXISTS requests
 );
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT        NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id          BIGINT        NOT NULL PRIMARY KEY,
     name        VARCHAR(255)  NOT NULL,
     description VARCHAR(1000) NOT NULL,
     available   Boolean       NOT NULL,
@@ -25,17 +31,32 @@ CREATE TABLE IF NOT EXISTS items
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id            BIGINT                      NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id            BIGINT                      NOT NULL PRIMARY KEY,
     item_id       BIGINT                      NOT NULL REFERENCES items (id) ON DELETE CASCADE,
     booker_id     BIGINT                      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
     status        VARCHAR                     NOT NULL,
     start_booking TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    end_booking   TIMESTAMP WITHOUT TIME ZONE NOT NULL
+    end_booking   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    owner_id      BIGINT                      NOT NULL,
+    version       BIGINT                      NOT NULL DEFAULT 0
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT;
+UPDATE bookings b SET owner_id = (SELECT i.user_id FROM items i WHERE i.id = b.item_id) WHERE b.owner_id IS NULL;
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS items_user_id_idx ON items (user_id, id);
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_booking DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_booking DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx ON bookings (owner_id, start_booking DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_status_start_idx ON bookings (owner_id, status, start_booking DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_booking);
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx ON bookings (item_id, end_booking);
+
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT                      NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id        BIGINT                      NOT NULL PRIMARY KEY,
     text      VARCHAR,
     item_id   BIGINT                      NOT NULL REFERENCES items (id) ON DELETE CASCADE,
     author_id BIGINT                      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
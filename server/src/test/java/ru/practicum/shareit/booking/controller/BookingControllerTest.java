@@ -10,7 +10,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -27,6 +31,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -44,6 +50,7 @@ class BookingControllerTest {
     private ObjectMapper mapper;
     private UserDto userDto;
     private BookingDto bookingDto;
+    private BookingShortDto bookingShortDto;
 
     @BeforeEach
     void beforeEach() {
@@ -59,6 +66,8 @@ class BookingControllerTest {
 
         Booking booking = Booking.builder().id(1L).start(start).end(end).item(item).booker(user1).status(BookingStatus.WAITING).build();
         bookingDto = bookingMapper.toModelDto(booking);
+        bookingShortDto = new BookingShortDto(booking.getId(), start, end, BookingStatus.WAITING,
+                item.getId(), item.getName(), user1.getId());
     }
 
     @Test
@@ -80,6 +89,21 @@ class BookingControllerTest {
         verify(bookingService, times(1)).changeBookingStatus(anyLong(), anyLong(), anyBoolean());
     }
 
+    @Test
+    void changeBookingStatusesTest() throws Exception {
+        List<BookingStatusResultDto> results = List.of(
+                BookingStatusResultDto.changed(1L, BookingStatus.APPROVED),
+                BookingStatusResultDto.failed(2L, "Резерв не найден"));
+        when(bookingService.changeBookingStatuses(anyLong(), anyList(), anyBoolean())).thenReturn(results);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/bookings/bulk")
+                        .content(mapper.writeValueAsString(new BookingStatusChangeDto(List.of(1L, 2L), true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(sharerUserId, userDto.getId()))
+                .andExpect(status().isOk()).andExpect(content().json(mapper.writeValueAsString(results)));
+        verify(bookingService, times(1)).changeBookingStatuses(userDto.getId(), List.of(1L, 2L), true);
+    }
+
     @Test
     void getBookingInfoTest() throws Exception {
         when(bookingService.getBookingInfo(anyLong(), anyLong())).thenReturn(bookingDto);
@@ -93,10 +117,10 @@ class BookingControllerTest {
     @Test
     void getBookingsByBookerTest() throws Exception {
         when(bookingService.getBookingsByBooker(anyLong(), any(String.class), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingDto));
+                .thenReturn(List.of(bookingShortDto));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/bookings").header(sharerUserId, userDto.getId()))
-                .andExpect(status().isOk()).andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+                .andExpect(status().isOk()).andExpect(content().json(mapper.writeValueAsString(List.of(bookingShortDto))));
         verify(bookingService, times(1))
                 .getBookingsByBooker(anyLong(), any(String.class), anyInt(), anyInt());
     }
@@ -104,11 +128,67 @@ class BookingControllerTest {
     @Test
     void getBookingsByOwnerTest() throws Exception {
         when(bookingService.getBookingsByOwner(anyLong(), any(String.class), anyInt(), anyInt()))
-                .thenReturn(List.of(bookingDto));
+                .thenReturn(List.of(bookingShortDto));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner").header(sharerUserId, userDto.getId()))
-                .andExpect(status().isOk()).andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+                .andExpect(status().isOk()).andExpect(content().json(mapper.writeValueAsString(List.of(bookingShortDto))));
         verify(bookingService, times(1))
                 .getBookingsByOwner(anyLong(), any(String.class), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsByBookerAfterCursorTest() throws Exception {
+        String cursor = BookingCursor.nextToken(List.of(bookingShortDto), 1);
+        when(bookingService.getBookingsByBookerAfter(anyLong(), any(String.class), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of(bookingShortDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .param("cursor", cursor)
+                        .param("size", "1")
+                        .header(sharerUserId, userDto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, cursor))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingShortDto))));
+        verify(bookingService, never())
+                .getBookingsByBooker(anyLong(), any(String.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void getBookingsByOwnerAfterCursorTest() throws Exception {
+        String cursor = BookingCursor.nextToken(List.of(bookingShortDto), 1);
+        when(bookingService.getBookingsByOwnerAfter(anyLong(), any(String.class), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of(bookingShortDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner")
+                        .param("cursor", cursor)
+                        .header(sharerUserId, userDto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+        verify(bookingService, times(1))
+                .getBookingsByOwnerAfter(anyLong(), any(String.class), any(BookingCursor.class), anyInt());
+    }
+
+    @Test
+    void getBookingsWithBrokenCursorTest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings")
+                        .param("cursor", "%%%")
+                        .header(sharerUserId, userDto.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookingsByOwnerSlimPayloadTest() throws Exception {
+        when(bookingService.getBookingsByOwner(anyLong(), any(String.class), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingShortDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner").header(sharerUserId, userDto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.id").value(1))
+                .andExpect(jsonPath("$[0].item.name").value("Item name"))
+                .andExpect(jsonPath("$[0].item.description").doesNotExist())
+                .andExpect(jsonPath("$[0].booker.id").value(1))
+                .andExpect(jsonPath("$[0].booker.email").doesNotExist())
+                .andExpect(jsonPath("$[0].itemId").value(1))
+                .andExpect(jsonPath("$[0].bookerId").value(1));
+    }
+}
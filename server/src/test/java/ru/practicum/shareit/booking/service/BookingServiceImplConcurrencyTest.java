@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class BookingServiceImplConcurrencyTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserCache userCache;
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookingsForSameSlotTest() throws Exception {
+        User owner = userRepository.save(new User(null, "Owner", "owner@yandex.ru"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Item name")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        int threads = 4;
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            bookers.add(userRepository.save(new User(null, "Booker" + i, "booker" + i + "@yandex.ru")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (User booker : bookers) {
+            BookingDto bookingDto = new BookingDto(0, item, booker, null, start.plusHours(booker.getId() % 2), end);
+            Callable<BookingDto> task = () -> {
+                ready.await();
+                return bookingService.createBooking(booker.getId(), bookingDto);
+            };
+            results.add(executor.submit(task));
+        }
+        ready.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                result.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(threads - 1, conflicts);
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void createBookingReportsInsertFailureAsConflictTest() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@yandex.ru"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Item name")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        User booker = userRepository.save(new User(null, "Booker", "booker@yandex.ru"));
+        userCache.findById(booker.getId());
+        userRepository.deleteById(booker.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto bookingDto = new BookingDto(0, item, booker, null, start, start.plusDays(1));
+
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(booker.getId(), bookingDto));
+        assertEquals(0, bookingRepository.count());
+    }
+
+    @Test
+    void changeBookingStatusesReportsEveryBookingWhenVersionChangesConcurrentlyTest() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@yandex.ru"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@yandex.ru"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Item name")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking waiting = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.WAITING).start(start).end(start.plusDays(1)).build());
+        Booking rejected = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.REJECTED).start(start.plusDays(5)).end(start.plusDays(6)).build());
+        TransactionTemplate concurrentRequest = new TransactionTemplate(transactionManager);
+        concurrentRequest.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        BookingRepository concurrentlyChanged = mock(BookingRepository.class, delegatesTo(bookingRepository));
+        doAnswer(invocation -> {
+            List<Booking> loaded = bookingRepository.findAllWithItemAndBookerByIdIn(invocation.getArgument(0));
+            concurrentRequest.executeWithoutResult(tx -> jdbcTemplate.update(
+                    "update bookings set version = version + 1 where id = ?", waiting.getId()));
+            return loaded;
+        }).when(concurrentlyChanged).findAllWithItemAndBookerByIdIn(anyCollection());
+        BookingService service = new BookingServiceImpl(userCache, concurrentlyChanged, itemRepository, transactionManager);
+
+        List<BookingStatusResultDto> results = service.changeBookingStatuses(owner.getId(),
+                List.of(waiting.getId(), rejected.getId()), true);
+
+        assertEquals(2, results.size());
+        assertEquals(waiting.getId(), results.get(0).getBookingId());
+        assertEquals("Статус резерва уже изменен другим запросом", results.get(0).getError());
+        assertEquals(rejected.getId(), results.get(1).getBookingId());
+        assertEquals(BookingStatus.APPROVED, results.get(1).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(rejected.getId()).orElseThrow().getStatus());
+    }
+}
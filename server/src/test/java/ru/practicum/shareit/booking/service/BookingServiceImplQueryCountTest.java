@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingServiceImpl.class, UserCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceImplQueryCountTest {
+
+    private static final int BOOKINGS_COUNT = 20;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        owner = userRepository.save(new User(null, "Owner name", "owner@yandex.ru"));
+        User booker = userRepository.save(new User(null, "Booker name", "booker@yandex.ru"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Item name")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            bookingIds.add(bookingRepository.save(Booking.builder().item(item).booker(booker)
+                    .status(BookingStatus.WAITING).start(start.plusDays(i)).end(start.plusDays(i + 1)).build()).getId());
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void changeBookingStatusesLoadsOnceAndUpdatesInOneBatchTest() {
+        List<BookingStatusResultDto> results = bookingService.changeBookingStatuses(owner.getId(), bookingIds, false);
+
+        assertEquals(BOOKINGS_COUNT, results.size());
+        results.forEach(result -> {
+            assertEquals(BookingStatus.REJECTED, result.getStatus());
+            assertNull(result.getError());
+        });
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(BOOKINGS_COUNT, statistics.getEntityUpdateCount());
+        bookingRepository.findAllById(bookingIds)
+                .forEach(booking -> assertEquals(BookingStatus.REJECTED, booking.getStatus()));
+    }
+}
@@ -3,33 +3,51 @@ package ru.practicum.shareit.booking.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,13 +62,16 @@ class BookingServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private LocalDateTime start;
     private LocalDateTime end;
     private User user1;
     private User user2;
     private Item item;
     private Booking booking;
+    private BookingShortDto bookingShort;
 
     @BeforeEach
     void beforeEach() {
@@ -78,17 +99,20 @@ class BookingServiceImplTest {
                 .booker(user2)
                 .status(BookingStatus.WAITING)
                 .build();
+
+        bookingShort = new BookingShortDto(booking.getId(), start, end, BookingStatus.WAITING,
+                item.getId(), item.getName(), user2.getId());
     }
 
     @Test
     void createBookingTest() {
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
 
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
 
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BookingDto bookingDto = bookingService.createBooking(
@@ -103,13 +127,40 @@ class BookingServiceImplTest {
         assertEquals(user2, bookingDto.getBooker());
     }
 
+    @Test
+    void changeBookingStatusesTest() {
+        booking.setOwnerId(user1.getId());
+        Booking approved = Booking.builder().id(2L).start(start).end(end).item(item).booker(user2)
+                .status(BookingStatus.APPROVED).ownerId(user1.getId()).build();
+        Booking foreign = Booking.builder().id(3L).start(start).end(end).item(item).booker(user2)
+                .status(BookingStatus.WAITING).ownerId(user2.getId()).build();
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(anyCollection()))
+                .thenReturn(List.of(foreign, approved, booking));
+
+        List<BookingStatusResultDto> results = bookingService.changeBookingStatuses(user1.getId(),
+                List.of(1L, 2L, 3L, 4L, 1L), false);
+
+        assertEquals(4, results.size());
+        assertEquals(1L, results.get(0).getBookingId());
+        assertEquals(BookingStatus.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals("Вы не можете сменить статус у утвержденного резерва", results.get(1).getError());
+        assertEquals("У вас нет прав на подтверждение аренды этой вещи", results.get(2).getError());
+        assertEquals("Резерв не найден", results.get(3).getError());
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        assertEquals(BookingStatus.WAITING, foreign.getStatus());
+        verify(bookingRepository).findAllWithItemAndBookerByIdIn(eq(new LinkedHashSet<>(List.of(1L, 2L, 3L, 4L))));
+        verify(bookingRepository).flush();
+        verify(bookingRepository, never()).saveAllAndFlush(anyList());
+    }
+
     @Test
     void createBookingWithBookerAsOwnerUserTest() {
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -123,11 +174,11 @@ class BookingServiceImplTest {
     @Test
     void createBookingOnNotAvailableItemTest() {
         item.setAvailable(false);
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -140,11 +191,11 @@ class BookingServiceImplTest {
     @Test
     void createBookingWithWrongStartTest() {
         booking.setEnd(LocalDateTime.now().minusDays(3));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BadRequestException exception = assertThrows(BadRequestException.class,
@@ -157,11 +208,11 @@ class BookingServiceImplTest {
     @Test
     void createBookingOnNotExistingItemTest() {
         booking.setStart(LocalDateTime.now().minusDays(3));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.empty());
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -173,13 +224,13 @@ class BookingServiceImplTest {
 
     @Test
     void createBookingWithWrongUserTest() {
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
 
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -193,9 +244,9 @@ class BookingServiceImplTest {
     void changeBookingStatusTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BookingDto bookingDto = bookingService.changeBookingStatus(
@@ -215,9 +266,9 @@ class BookingServiceImplTest {
     void updateBookingWithWrongIdTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -233,9 +284,9 @@ class BookingServiceImplTest {
     void updateBookingFromWrongUserTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -254,9 +305,9 @@ class BookingServiceImplTest {
                 .thenReturn(Optional.ofNullable(booking));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         booking.setStatus(BookingStatus.APPROVED);
@@ -274,9 +325,9 @@ class BookingServiceImplTest {
     void updateBookingRejectTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
-        when(bookingRepository.save(any(Booking.class)))
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(booking);
 
         BookingDto bookingDto = bookingService.changeBookingStatus(
@@ -292,11 +343,111 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.REJECTED, bookingDto.getStatus());
     }
 
+    @Test
+    void changeBookingStatusConcurrentlyChangedTest() {
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()));
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> bookingService.changeBookingStatus(
+                        user1.getId(),
+                        booking.getId(),
+                        true));
+
+        assertEquals("Статус резерва уже изменен другим запросом", exception.getMessage());
+    }
+
+    @Test
+    void approveRejectedBookingOnTakenSlotTest() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.existsOverlappingExcept(eq(item.getId()), eq(start), eq(end), anyCollection(),
+                eq(booking.getId())))
+                .thenReturn(true);
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> bookingService.changeBookingStatus(user1.getId(), booking.getId(), true));
+
+        assertEquals("Вещь уже забронирована на выбранный период", exception.getMessage());
+        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    void approveBookingRejectedByExclusionConstraintTest() {
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("bookings_no_overlap"));
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> bookingService.changeBookingStatus(user1.getId(), booking.getId(), true));
+
+        assertEquals("Вещь уже забронирована на выбранный период", exception.getMessage());
+    }
+
+    @Test
+    void changeBookingStatusesReportsTakenSlotsTest() {
+        booking.setOwnerId(user1.getId());
+        booking.setStatus(BookingStatus.REJECTED);
+        Booking sameSlot = Booking.builder().id(2L).start(start).end(end).item(item).booker(user2)
+                .status(BookingStatus.REJECTED).ownerId(user1.getId()).build();
+        Booking taken = Booking.builder().id(3L).start(start.plusDays(5)).end(end.plusDays(5)).item(item).booker(user2)
+                .status(BookingStatus.REJECTED).ownerId(user1.getId()).build();
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(anyCollection()))
+                .thenReturn(List.of(booking, sameSlot, taken));
+        when(bookingRepository.findOverlappingIds(anyCollection(), eq(BookingStatus.BLOCKING)))
+                .thenReturn(List.of(taken.getId()));
+
+        List<BookingStatusResultDto> results = bookingService.changeBookingStatuses(user1.getId(),
+                List.of(1L, 2L, 3L), true);
+
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals("Вещь уже забронирована на выбранный период", results.get(1).getError());
+        assertEquals("Вещь уже забронирована на выбранный период", results.get(2).getError());
+        assertEquals(BookingStatus.REJECTED, sameSlot.getStatus());
+        assertEquals(BookingStatus.REJECTED, taken.getStatus());
+        verify(bookingRepository).flush();
+    }
+
+    @Test
+    void changeBookingStatusesReportsConflictsPerBookingTest() {
+        booking.setOwnerId(user1.getId());
+        Booking stale = Booking.builder().id(2L).start(start.plusDays(5)).end(end.plusDays(5)).item(item).booker(user2)
+                .status(BookingStatus.WAITING).ownerId(user1.getId()).build();
+        Booking overlapping = Booking.builder().id(3L).start(start.plusDays(10)).end(end.plusDays(10)).item(item)
+                .booker(user2).status(BookingStatus.WAITING).ownerId(user1.getId()).build();
+        when(bookingRepository.findAllWithItemAndBookerByIdIn(anyCollection()))
+                .thenReturn(List.of(booking, stale, overlapping));
+        doThrow(new DataIntegrityViolationException("bookings_no_overlap")).when(bookingRepository).flush();
+        when(bookingRepository.saveAndFlush(stale)).thenThrow(new OptimisticLockingFailureException("stale"));
+        when(bookingRepository.saveAndFlush(overlapping))
+                .thenThrow(new DataIntegrityViolationException("bookings_no_overlap"));
+
+        List<BookingStatusResultDto> results = bookingService.changeBookingStatuses(user1.getId(),
+                List.of(1L, 2L, 3L), true);
+
+        assertEquals(3, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(2L, results.get(1).getBookingId());
+        assertEquals("Статус резерва уже изменен другим запросом", results.get(1).getError());
+        assertEquals(3L, results.get(2).getBookingId());
+        assertEquals("Вещь уже забронирована на выбранный период", results.get(2).getError());
+        verify(bookingRepository).saveAndFlush(booking);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
     @Test
     void getBookingTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
 
         BookingDto bookingDto = bookingService.getBookingInfo(
@@ -315,7 +466,7 @@ class BookingServiceImplTest {
     void getBookingForBookerTest() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(booking));
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
 
         booking.setBooker(user1);
@@ -337,7 +488,7 @@ class BookingServiceImplTest {
     void getBookingInfoBookingNotFound() {
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -352,10 +503,10 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingInfoYouNotABooker() {
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
 
-        when(userRepository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user2));
 
         when(bookingRepository.findById(anyLong()))
@@ -376,12 +527,12 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDtoResponses = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDtoResponses = bookingService.getBookingsByBooker(user1.getId(),
                 "ALL",
                 0,
                 10);
@@ -390,22 +541,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDtoResponses.get(0).getId());
         assertEquals(start, bookingDtoResponses.get(0).getStart());
         assertEquals(end, bookingDtoResponses.get(0).getEnd());
-        assertEquals(item, bookingDtoResponses.get(0).getItem());
-        assertEquals(user2, bookingDtoResponses.get(0).getBooker());
+        assertEquals(item.getId(), bookingDtoResponses.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDtoResponses.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDtoResponses.get(0).getStatus());
     }
 
     @Test
     void getBookingsCurrentStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdCurrent(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDtoResponses = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDtoResponses = bookingService.getBookingsByBooker(user1.getId(),
                 "CURRENT",
                 0,
                 10);
@@ -414,22 +565,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDtoResponses.get(0).getId());
         assertEquals(start, bookingDtoResponses.get(0).getStart());
         assertEquals(end, bookingDtoResponses.get(0).getEnd());
-        assertEquals(item, bookingDtoResponses.get(0).getItem());
-        assertEquals(user2, bookingDtoResponses.get(0).getBooker());
+        assertEquals(item.getId(), bookingDtoResponses.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDtoResponses.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDtoResponses.get(0).getStatus());
     }
 
     @Test
     void getBookingsAfterStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
                 "PAST",
                 0,
                 10);
@@ -438,22 +589,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getBookingsStartIsAfterStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
                 "FUTURE",
                 0,
                 10);
@@ -462,22 +613,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getBookingsWaitingStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(
                 anyLong(),
                 any(BookingStatus.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
                 "WAITING",
                 0,
                 10);
@@ -486,22 +637,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getBookingsRejectedStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(
                 anyLong(),
                 any(BookingStatus.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByBooker(user1.getId(),
                 "REJECTED",
                 0,
                 10);
@@ -510,15 +661,15 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getBookingsUnknownStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
 
         UnsupportedStateException exception = assertThrows(UnsupportedStateException.class,
                 () -> bookingService.getBookingsByBooker(user1.getId(),
@@ -531,8 +682,8 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsWithWrongUserTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong()))
+                .thenReturn(false);
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(booking);
 
@@ -549,12 +700,12 @@ class BookingServiceImplTest {
 
     @Test
     void getItemsOwnerBookingsTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerId(anyLong(), any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "ALL",
                 0,
                 10);
@@ -563,22 +714,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsCurrentStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerIdCurrent(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "CURRENT",
                 0,
                 10);
@@ -587,22 +738,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsEndBeforeStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerIdAndEndBefore(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "PAST",
                 0,
                 10);
@@ -611,22 +762,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsStartAfterStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerIdAndStartAfter(
                 anyLong(),
                 any(LocalDateTime.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "FUTURE",
                 0,
                 10);
@@ -635,22 +786,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsWaitingStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerIdAndStatus(
                 anyLong(),
                 any(BookingStatus.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "WAITING",
                 0,
                 10);
@@ -659,22 +810,22 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsRejectedStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findAllByOwnerIdAndStatus(
                 anyLong(),
                 any(BookingStatus.class),
                 any(PageRequest.class)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingShort));
 
-        List<BookingDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
+        List<BookingShortDto> bookingDto = bookingService.getBookingsByOwner(user1.getId(),
                 "REJECTED",
                 0,
                 10);
@@ -683,15 +834,15 @@ class BookingServiceImplTest {
         assertEquals(1, bookingDto.get(0).getId());
         assertEquals(start, bookingDto.get(0).getStart());
         assertEquals(end, bookingDto.get(0).getEnd());
-        assertEquals(item, bookingDto.get(0).getItem());
-        assertEquals(user2, bookingDto.get(0).getBooker());
+        assertEquals(item.getId(), bookingDto.get(0).getItemId());
+        assertEquals(user2.getId(), bookingDto.get(0).getBookerId());
         assertEquals(BookingStatus.WAITING, bookingDto.get(0).getStatus());
     }
 
     @Test
     void getItemsOwnerBookingsUnknownStateTest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
 
         UnsupportedStateException exception = assertThrows(UnsupportedStateException.class,
                 () -> bookingService.getBookingsByOwner(user1.getId(),
@@ -705,8 +856,8 @@ class BookingServiceImplTest {
     @Test
     void getItemsOwnerWithWrongUser() {
 
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong()))
+                .thenReturn(false);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookingService.getBookingsByOwner(user1.getId(),
@@ -716,4 +867,106 @@ class BookingServiceImplTest {
 
         assertEquals("Пользователь не найден", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsUsesExactOffsetTest() {
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
+        ArgumentCaptor<PageRequest> pageable = ArgumentCaptor.forClass(PageRequest.class);
+
+        bookingService.getBookingsByBooker(user1.getId(), "ALL", 5, 10);
+
+        verify(bookingRepository).findAllByBookerIdOrderByStartDesc(anyLong(), pageable.capture());
+        assertEquals(5, pageable.getValue().getOffset());
+        assertEquals(10, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    void getBookingsAfterCursorTest() {
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findBookerPageByStatus(eq(user2.getId()), eq(BookingStatus.WAITING), eq(end), eq(7L),
+                any(PageRequest.class)))
+                .thenReturn(List.of(bookingShort));
+
+        List<BookingShortDto> bookingDtoResponses = bookingService.getBookingsByBookerAfter(user2.getId(),
+                "WAITING",
+                new BookingCursor(end, 7L),
+                10);
+
+        assertEquals(1, bookingDtoResponses.size());
+        assertEquals(booking.getId(), bookingDtoResponses.get(0).getId());
+    }
+
+    @Test
+    void getItemsOwnerBookingsAfterCursorTest() {
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findOwnerPageFuture(eq(user1.getId()), any(LocalDateTime.class), eq(end), eq(7L),
+                any(PageRequest.class)))
+                .thenReturn(List.of(bookingShort));
+
+        List<BookingShortDto> bookingDtoResponses = bookingService.getBookingsByOwnerAfter(user1.getId(),
+                "FUTURE",
+                new BookingCursor(end, 7L),
+                10);
+
+        assertEquals(1, bookingDtoResponses.size());
+        assertEquals(booking.getId(), bookingDtoResponses.get(0).getId());
+    }
+
+    @Test
+    void getBookingsAfterCursorUnknownStateTest() {
+        when(userCache.existsById(anyLong()))
+                .thenReturn(true);
+
+        UnsupportedStateException exception = assertThrows(UnsupportedStateException.class,
+                () -> bookingService.getBookingsByOwnerAfter(user1.getId(),
+                        "UNKNOWN",
+                        new BookingCursor(end, 7L),
+                        10));
+
+        assertEquals("Unknown state: UNKNOWN", exception.getMessage());
+    }
+
+    @Test
+    void bookingCursorRoundTripTest() {
+        List<BookingShortDto> page = List.of(bookingShort);
+
+        BookingCursor cursor = BookingCursor.decode(BookingCursor.nextToken(page, 1));
+
+        assertEquals(booking.getStart(), cursor.getStart());
+        assertEquals(booking.getId(), cursor.getId());
+        assertEquals(null, BookingCursor.nextToken(page, 2));
+        assertThrows(BadRequestException.class, () -> BookingCursor.decode("not a cursor"));
+    }
+
+    @Test
+    void createBookingOverlappingTest() {
+        when(userCache.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user2));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.existsOverlapping(eq(item.getId()), eq(start), eq(end), anyCollection()))
+                .thenReturn(true);
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> bookingService.createBooking(user2.getId(), bookingMapper.toModelDto(booking)));
+
+        assertEquals("Вещь уже забронирована на выбранный период", exception.getMessage());
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    void createBookingRejectedByExclusionConstraintTest() {
+        when(userCache.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user2));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("bookings_no_overlap"));
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.createBooking(user2.getId(), bookingMapper.toModelDto(booking)));
+    }
+}
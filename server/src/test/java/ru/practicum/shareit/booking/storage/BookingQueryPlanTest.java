@@ -0,0 +1,177 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.storage.BookingQueryPlanTest$SqlCapture")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookingQueryPlanTest {
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(2023, 6, 1, 0, 0);
+    private static final Pattern PARAMETER = Pattern.compile("(\\w+)\\s*(?:<=|>=|<>|<|>|=)\\s*\\?|(limit|offset)\\s+\\?");
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        dropForeignKeys("ITEMS");
+        dropForeignKeys("BOOKINGS");
+        execute("insert into users (id, name, email) select x, 'user' || x, 'user' || x || '@yandex.ru' "
+                + "from system_range(1, 100)");
+        execute("insert into items (id, name, description, available, user_id) "
+                + "select x, 'item' || x, 'item', true, mod(x, 100) + 1 from system_range(1, 1000)");
+        execute("insert into bookings (id, item_id, booker_id, status, start_booking, end_booking, owner_id) "
+                + "select x, mod(x, 1000) + 1, mod(x * 7, 100) + 1, "
+                + "case mod(x, 3) when 0 then 'WAITING' when 1 then 'APPROVED' else 'REJECTED' end, "
+                + "dateadd(hour, x, timestamp '2023-01-01 00:00:00'), "
+                + "dateadd(hour, x + 2, timestamp '2023-01-01 00:00:00'), "
+                + "mod(mod(x, 1000) + 1, 100) + 1 from system_range(1, 10000)");
+        execute("analyze");
+    }
+
+    @Test
+    void bookerPagesUseIndexTest() {
+        PageRequest offsetPage = PageRequest.of(1, 10);
+        PageRequest cursorPage = PageRequest.of(0, 10);
+
+        assertIndexSeek("bookings", "bookings_booker_start_idx",
+                () -> bookingRepository.findAllByBookerIdOrderByStartDesc(1L, offsetPage),
+                "BOOKER_ID =");
+        assertIndexSeek("bookings", "bookings_booker_status_start_idx",
+                () -> bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(1L,
+                        BookingStatus.WAITING, offsetPage), "STATUS =");
+        assertIndexSeek("bookings", "bookings_booker_start_idx",
+                () -> bookingRepository.findBookerPage(1L, CURSOR_START, 5000L, cursorPage),
+                "START_BOOKING <=");
+        assertIndexSeek("bookings", "bookings_booker_status_start_idx",
+                () -> bookingRepository.findBookerPageByStatus(1L, BookingStatus.WAITING,
+                        CURSOR_START, 5000L, cursorPage), "START_BOOKING <=");
+        assertIndexSeek("bookings", "bookings_booker_start_idx",
+                () -> bookingRepository.findBookerPagePast(1L, CURSOR_START, CURSOR_START, 5000L,
+                        cursorPage), "START_BOOKING <=");
+    }
+
+    @Test
+    void ownerPagesUseIndexTest() {
+        PageRequest offsetPage = PageRequest.of(1, 10);
+        PageRequest cursorPage = PageRequest.of(0, 10);
+
+        assertIndexSeek("bookings", "bookings_owner_start_idx",
+                () -> bookingRepository.findAllByOwnerId(1L, offsetPage), "OWNER_ID =");
+        assertIndexSeek("bookings", "bookings_owner_start_idx",
+                () -> bookingRepository.findAllByOwnerIdAndStartAfter(1L, CURSOR_START, offsetPage), "START_BOOKING >");
+        assertIndexSeek("bookings", "bookings_owner_status_start_idx",
+                () -> bookingRepository.findAllByOwnerIdAndStatus(1L, BookingStatus.REJECTED, offsetPage), "STATUS =");
+        assertIndexSeek("bookings", "bookings_owner_start_idx",
+                () -> bookingRepository.findOwnerPage(1L, CURSOR_START, 5000L, cursorPage),
+                "START_BOOKING <=");
+        assertIndexSeek("bookings", "bookings_owner_start_idx",
+                () -> bookingRepository.findOwnerPageFuture(1L, CURSOR_START.minusMonths(3),
+                        CURSOR_START, 5000L, cursorPage), "START_BOOKING <=");
+    }
+
+    @Test
+    void itemBookingLookupsUseIndexTest() {
+        assertIndexSeek("bookings", "bookings_item_end_idx",
+                () -> bookingRepository.findFirstByItemIdAndEndBeforeOrderByStartDesc(1L, CURSOR_START), "ITEM_ID =");
+        assertIndexSeek("bookings", "bookings_item_end_idx",
+                () -> bookingRepository.findFirstByItemIdAndEndIsAfterOrderByStartAsc(1L, CURSOR_START), "ITEM_ID =");
+    }
+
+    @Test
+    void ownerItemsPageUsesIndexTest() {
+        assertIndexSeek("items", "items_user_id_idx",
+                () -> itemRepository.findAllByOwnerIdOrderById(1L, PageRequest.of(1, 10)),
+                "USER_ID =");
+    }
+
+    private void assertIndexSeek(String table, String index, Runnable query, String condition) {
+        SqlCapture.statements.clear();
+        query.run();
+        String sql = SqlCapture.statements.stream()
+                .filter(statement -> statement.contains(" from " + table + " "))
+                .findFirst()
+                .orElseThrow();
+        String plan = String.valueOf(em.getEntityManager()
+                .createNativeQuery("explain " + bindLiterals(sql))
+                .getSingleResult());
+        Matcher seek = Pattern.compile("\"" + table.toUpperCase() + "\" \"\\w+\"\\s+/\\* PUBLIC\\.(\\w+): ([^*]*)\\*/")
+                .matcher(plan);
+        assertTrue(seek.find(), plan);
+        assertEquals(index.toUpperCase(), seek.group(1), plan);
+        assertTrue(seek.group(2).contains(condition), plan);
+    }
+
+    private String bindLiterals(String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder bound = new StringBuilder();
+        while (matcher.find()) {
+            String target = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            String literal;
+            if (target.equals("limit") || target.equals("offset")) {
+                literal = "10";
+            } else if (target.endsWith("status")) {
+                literal = "'WAITING'";
+            } else if (target.endsWith("booking")) {
+                literal = "timestamp '" + CURSOR_START.toString().replace('T', ' ') + ":00'";
+            } else if (target.endsWith("id")) {
+                literal = "1";
+            } else {
+                throw new IllegalArgumentException("Неизвестный параметр " + target + " в " + sql);
+            }
+            String match = matcher.group();
+            matcher.appendReplacement(bound, Matcher.quoteReplacement(match.substring(0, match.length() - 1) + literal));
+        }
+        matcher.appendTail(bound);
+        return bound.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dropForeignKeys(String table) {
+        // H2 заводит под каждый внешний ключ отдельный индекс, а PostgreSQL нет; без них планировщик
+        // выбирает из тех же индексов, что объявлены в schema.sql
+        List<String> constraints = em.getEntityManager()
+                .createNativeQuery("select constraint_name from information_schema.table_constraints "
+                        + "where table_name = ?1 and constraint_type = 'FOREIGN KEY'")
+                .setParameter(1, table)
+                .getResultList();
+        constraints.forEach(constraint -> execute("alter table " + table + " drop constraint " + constraint));
+    }
+
+    private void execute(String sql) {
+        em.getEntityManager().createNativeQuery(sql).executeUpdate();
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,26 +1,41 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class BookingRepositoryTest {
 
@@ -28,6 +43,8 @@ class BookingRepositoryTest {
     private TestEntityManager em;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     private User user1;
     private User user2;
@@ -52,8 +69,8 @@ class BookingRepositoryTest {
 
         booking = Booking.builder()
                 .id(null)
-                .start(LocalDateTime.now().plusDays(1))
-                .end(LocalDateTime.now().plusDays(3))
+                .start(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1))
+                .end(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(3))
                 .item(item)
                 .booker(user2)
                 .status(BookingStatus.WAITING)
@@ -72,100 +89,100 @@ class BookingRepositoryTest {
     void findAllByBookerIdOrderByStartDescTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdOrderByStartDesc(user2.getId(), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByBookerIdOrderByStartDesc(user2.getId(), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByBookerIdAndStatusTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(user2.getId(), BookingStatus.WAITING, pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(user2.getId(), BookingStatus.WAITING, pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByBookerIdAndStartIsAfterTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(user2.getId(), LocalDateTime.now().minusHours(4), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(user2.getId(), LocalDateTime.now().minusHours(4), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByBookerIdAndEndIsBeforeTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(user2.getId(), LocalDateTime.now().plusDays(10), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(user2.getId(), LocalDateTime.now().plusDays(10), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByBookerIdCurrentTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByBookerIdCurrent(user2.getId(), LocalDateTime.now().plusDays(2), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByBookerIdCurrent(user2.getId(), LocalDateTime.now().plusDays(2), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByOwnerIdTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByOwnerId(user1.getId(), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerId(user1.getId(), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));//id могут сбиться, проверить при запуске всех тестов
+        assertEquals(booking.getId(), bookingList.get(0).getId());//id могут сбиться, проверить при запуске всех тестов
     }
 
     @Test
     void findAllByOwnerIdAndStatusTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByOwnerIdAndStatus(user1.getId(), BookingStatus.WAITING, pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerIdAndStatus(user1.getId(), BookingStatus.WAITING, pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByOwnerIdAndStartAfterTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByOwnerIdAndStartAfter(user1.getId(), LocalDateTime.now().minusHours(4), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerIdAndStartAfter(user1.getId(), LocalDateTime.now().minusHours(4), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByOwnerIdAndEndBeforeTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByOwnerIdAndEndBefore(user1.getId(), LocalDateTime.now().plusDays(10), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerIdAndEndBefore(user1.getId(), LocalDateTime.now().plusDays(10), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
     void findAllByOwnerIdCurrentTest() {
         PageRequest pg = PageRequest.of(0, 10);
 
-        List<Booking> bookingList = bookingRepository.findAllByOwnerIdCurrent(user1.getId(), LocalDateTime.now().plusDays(2), pg);
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerIdCurrent(user1.getId(), LocalDateTime.now().plusDays(2), pg);
 
         assertEquals(1, bookingList.size());
-        assertEquals(booking, bookingList.get(0));
+        assertEquals(booking.getId(), bookingList.get(0).getId());
     }
 
     @Test
@@ -197,4 +214,239 @@ class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(10));
         assertEquals(booking, res.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLastBookingsByItemIdsTest() {
+        Booking older = Booking.builder()
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(4))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(older);
+        Booking last = Booking.builder()
+                .start(LocalDateTime.now().minusDays(3))
+                .end(LocalDateTime.now().minusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(last);
+
+        List<Booking> res = bookingRepository.findLastBookingsByItemIds(List.of(item.getId()), LocalDateTime.now());
+
+        assertEquals(List.of(last), res);
+    }
+
+    @Test
+    void findAllWithItemAndBookerByIdInUpdatesInBatchesTest() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Booking waiting = Booking.builder()
+                    .start(LocalDateTime.now().plusDays(10 + i))
+                    .end(LocalDateTime.now().plusDays(11 + i))
+                    .item(item)
+                    .booker(user2)
+                    .status(BookingStatus.WAITING)
+                    .build();
+            em.persist(waiting);
+            ids.add(waiting.getId());
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Booking> res = bookingRepository.findAllWithItemAndBookerByIdIn(ids);
+        res.forEach(found -> found.setStatus(BookingStatus.APPROVED));
+        bookingRepository.saveAll(res);
+        em.flush();
+
+        assertEquals(30, res.size());
+        assertEquals(30, statistics.getEntityUpdateCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 3, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveStaleBookingFailsOnVersionTest() {
+        em.flush();
+        em.detach(booking);
+        Booking current = bookingRepository.findById(booking.getId()).orElseThrow();
+        current.setStatus(BookingStatus.APPROVED);
+        bookingRepository.saveAndFlush(current);
+        em.detach(current);
+
+        booking.setStatus(BookingStatus.REJECTED);
+
+        assertEquals(1L, current.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(booking));
+    }
+
+    @Test
+    void findNextBookingsByItemIdsTest() {
+        Booking later = Booking.builder()
+                .start(LocalDateTime.now().plusDays(5))
+                .end(LocalDateTime.now().plusDays(6))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(later);
+
+        List<Booking> res = bookingRepository.findNextBookingsByItemIds(List.of(item.getId()), LocalDateTime.now());
+
+        assertEquals(List.of(booking), res);
+    }
+
+    @Test
+    void findBookerPageWalksTiesByIdTest() {
+        Booking second = Booking.builder()
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(second);
+        Booking third = Booking.builder()
+                .start(booking.getStart().minusDays(1))
+                .end(booking.getEnd())
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.WAITING)
+                .build();
+        em.persist(third);
+        em.flush();
+        em.clear();
+        PageRequest pg = PageRequest.of(0, 1);
+
+        List<BookingShortDto> page1 = bookingRepository.findBookerPage(user2.getId(), booking.getStart().plusYears(1), Long.MAX_VALUE, pg);
+        List<BookingShortDto> page2 = bookingRepository.findBookerPage(user2.getId(), page1.get(0).getStart(), page1.get(0).getId(), pg);
+        List<BookingShortDto> page3 = bookingRepository.findOwnerPageByStatus(user1.getId(), BookingStatus.WAITING,
+                page2.get(0).getStart(), page2.get(0).getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(second.getId()), page1.stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(booking.getId()), page2.stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+        assertEquals(List.of(third.getId()), page3.stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void offsetAndCursorPagesShareOrderForEqualStartsTest() {
+        List<Long> ids = new ArrayList<>(List.of(booking.getId()));
+        for (int i = 0; i < 4; i++) {
+            Booking sameStart = Booking.builder()
+                    .start(booking.getStart())
+                    .end(booking.getEnd().plusHours(i))
+                    .item(item)
+                    .booker(user2)
+                    .status(BookingStatus.REJECTED)
+                    .build();
+            em.persist(sameStart);
+            ids.add(sameStart.getId());
+        }
+        em.flush();
+        em.clear();
+        ids.sort(Comparator.reverseOrder());
+
+        List<BookingShortDto> offsetPage = bookingRepository.findAllByBookerIdOrderByStartDesc(user2.getId(), PageRequest.of(0, 2));
+        BookingShortDto last = offsetPage.get(offsetPage.size() - 1);
+        List<BookingShortDto> cursorPage = bookingRepository.findBookerPage(user2.getId(), last.getStart(), last.getId(),
+                PageRequest.of(0, 10));
+        List<BookingShortDto> ownerPage = bookingRepository.findAllByOwnerId(user1.getId(), PageRequest.of(1, 2));
+
+        List<Long> pagedIds = new ArrayList<>();
+        offsetPage.forEach(b -> pagedIds.add(b.getId()));
+        cursorPage.forEach(b -> pagedIds.add(b.getId()));
+        assertEquals(ids, pagedIds);
+        assertEquals(ids.subList(2, 4), ownerPage.stream().map(BookingShortDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void ownerIdCopiedFromItemTest() {
+        assertEquals(user1.getId(), booking.getOwnerId());
+    }
+
+    @Test
+    void findAllByOwnerIdProjectsItemNameAndBookerTest() {
+        em.flush();
+        em.clear();
+
+        List<BookingShortDto> bookingList = bookingRepository.findAllByOwnerId(user1.getId(), PageRequest.of(0, 10));
+
+        assertEquals(1, bookingList.size());
+        assertEquals(item.getId(), bookingList.get(0).getItemId());
+        assertEquals("Item name", bookingList.get(0).getItem().getName());
+        assertEquals(user2.getId(), bookingList.get(0).getBookerId());
+        assertEquals(BookingStatus.WAITING, bookingList.get(0).getStatus());
+    }
+
+    @Test
+    void existsOverlappingTest() {
+        Set<BookingStatus> statuses = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertTrue(bookingRepository.existsOverlapping(item.getId(),
+                booking.getStart().plusHours(1), booking.getEnd().plusDays(1), statuses));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(),
+                booking.getEnd(), booking.getEnd().plusDays(1), statuses));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(),
+                booking.getStart().minusDays(1), booking.getStart(), statuses));
+
+        booking.setStatus(BookingStatus.REJECTED);
+        em.flush();
+
+        assertFalse(bookingRepository.existsOverlapping(item.getId(),
+                booking.getStart(), booking.getEnd(), statuses));
+    }
+
+    @Test
+    void existsOverlappingExceptTest() {
+        assertFalse(bookingRepository.existsOverlappingExcept(item.getId(),
+                booking.getStart(), booking.getEnd(), BookingStatus.BLOCKING, booking.getId()));
+        assertTrue(bookingRepository.existsOverlappingExcept(item.getId(),
+                booking.getStart(), booking.getEnd(), BookingStatus.BLOCKING, booking.getId() + 1));
+    }
+
+    @Test
+    void findOverlappingIdsTest() {
+        Booking overlapping = Booking.builder()
+                .start(booking.getStart().plusHours(1))
+                .end(booking.getEnd().plusHours(1))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.REJECTED)
+                .build();
+        Booking free = Booking.builder()
+                .start(booking.getEnd())
+                .end(booking.getEnd().plusDays(1))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.REJECTED)
+                .build();
+        em.persist(overlapping);
+        em.persist(free);
+
+        assertEquals(List.of(overlapping.getId()), bookingRepository.findOverlappingIds(
+                List.of(overlapping.getId(), free.getId()), BookingStatus.BLOCKING));
+    }
+
+    @Test
+    void findBusyIntervalsTest() {
+        Booking rejected = Booking.builder()
+                .start(booking.getEnd().plusDays(1))
+                .end(booking.getEnd().plusDays(2))
+                .item(item)
+                .booker(user2)
+                .status(BookingStatus.REJECTED)
+                .build();
+        em.persist(rejected);
+
+        List<AvailabilityIntervalDto> busy = bookingRepository.findBusyIntervals(item.getId(),
+                booking.getStart().minusDays(1), rejected.getEnd().plusDays(1), BookingStatus.BLOCKING);
+        List<AvailabilityIntervalDto> outside = bookingRepository.findBusyIntervals(item.getId(),
+                booking.getEnd(), booking.getEnd().plusDays(1), BookingStatus.BLOCKING);
+
+        assertEquals(List.of(new AvailabilityIntervalDto(booking.getStart(), booking.getEnd())), busy);
+        assertTrue(outside.isEmpty());
+    }
+}
@@ -9,7 +9,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
+import ru.practicum.shareit.item.dto.BulkItemResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoExt;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -22,12 +27,15 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -95,6 +103,61 @@ class ItemControllerTest {
     }
 
 
+    @Test
+    void importItemsNdjsonTest() throws Exception {
+        when(itemService.importItems(anyLong(), any())).thenAnswer(invocation -> importAll(invocation.getArgument(1)));
+        String body = mapper.writeValueAsString(new BulkItemLineDto(1, itemDto)) + "\n"
+                + mapper.writeValueAsString(new BulkItemLineDto(3, itemDto)) + "\n";
+
+        mockMvc.perform(post("/items/bulk")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(sharerUserId, user1Dto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].line").value(3))
+                .andExpect(jsonPath("$.results[1].id").value(itemDto.getId()));
+    }
+
+    @Test
+    void importItemsJsonArrayTest() throws Exception {
+        when(itemService.importItems(anyLong(), any())).thenAnswer(invocation -> importAll(invocation.getArgument(1)));
+
+        mockMvc.perform(post("/items/bulk")
+                        .content(mapper.writeValueAsString(List.of(new BulkItemLineDto(1, itemDto))))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(sharerUserId, user1Dto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].line").value(1));
+    }
+
+    @Test
+    void importItemsMalformedLineKeepsImportedLinesTest() throws Exception {
+        when(itemService.importItems(anyLong(), any())).thenAnswer(invocation -> importAll(invocation.getArgument(1)));
+        String body = mapper.writeValueAsString(new BulkItemLineDto(1, itemDto)) + "\n"
+                + mapper.writeValueAsString(new BulkItemLineDto(2, itemDto)) + "\n"
+                + "{\"line\": 3, \"item\": {\n"
+                + mapper.writeValueAsString(new BulkItemLineDto(4, itemDto)) + "\n";
+
+        mockMvc.perform(post("/items/bulk")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(sharerUserId, user1Dto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].id").value(itemDto.getId()))
+                .andExpect(jsonPath("$.results[2].line").value(3))
+                .andExpect(jsonPath("$.results[2].error").exists());
+    }
+
+    private BulkItemReportDto importAll(Iterator<BulkItemLineDto> lines) {
+        List<BulkItemResultDto> results = new ArrayList<>();
+        lines.forEachRemaining(line -> results.add(BulkItemResultDto.created(line.getLine(), line.getItem().getId())));
+        return new BulkItemReportDto(results.size(), 0, results);
+    }
+
     @Test
     void updateItemTest() throws Exception {
         when((itemService.updateItem(anyLong(), anyLong(), any(ItemDto.class))))
@@ -150,6 +213,20 @@ class ItemControllerTest {
                 .searchItem(anyString(), anyInt(), anyInt());
     }
 
+    @Test
+    void suggestItemNamesTest() throws Exception {
+        when(itemService.suggestItemNames(anyString(), anyInt()))
+                .thenReturn(List.of(itemDto.getName()));
+
+        mockMvc.perform(get("/items/search/suggest")
+                        .param("prefix", "It")
+                        .header(sharerUserId, user1Dto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(itemDto.getName()))));
+        verify(itemService, times(1))
+                .suggestItemNames("It", 10);
+    }
+
     @Test
     void addComment() throws Exception {
         when(itemService.addComment(anyLong(), anyLong(), any(CommentDto.class)))
@@ -164,4 +241,24 @@ class ItemControllerTest {
         verify(itemService, times(1))
                 .addComment(anyLong(), anyLong(), any(CommentDto.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailabilityTest() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(2);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(1L, from, to, List.of(
+                new AvailabilityIntervalDto(from, from.plusDays(1), true),
+                new AvailabilityIntervalDto(from.plusDays(1), to, false)));
+        when(itemService.getItemAvailability(1L, from, to))
+                .thenReturn(availability);
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header(sharerUserId, user1Dto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(availability)));
+        verify(itemService, times(1))
+                .getItemAvailability(1L, from, to);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameSuggesterTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemNameSuggester suggester;
+
+    @BeforeEach
+    void beforeEach() {
+        suggester = new ItemNameSuggester(itemRepository);
+        suggester.index(item(1L, "Дрель", true));
+        suggester.index(item(2L, "Дрель ударная", true));
+        suggester.index(item(3L, "Домкрат", true));
+        suggester.index(item(4L, "Дрезина", false));
+    }
+
+    @Test
+    void suggestReturnsAvailableNamesInOrderTest() {
+        assertEquals(List.of("Домкрат", "Дрель", "Дрель ударная"), suggester.suggest("д", 10));
+        assertEquals(List.of("Дрель", "Дрель ударная"), suggester.suggest("ДРЕ", 10));
+        assertEquals(List.of("Домкрат"), suggester.suggest("д", 1));
+        assertEquals(List.of("Домкрат", "Дрель", "Дрель ударная"), suggester.suggest("д", Integer.MAX_VALUE));
+        assertEquals(Collections.emptyList(), suggester.suggest("пила", 10));
+        assertEquals(Collections.emptyList(), suggester.suggest(" ", 10));
+    }
+
+    @Test
+    void suggestFollowsRenamesAndAvailabilityTest() {
+        suggester.index(item(1L, "Пила", true));
+        suggester.index(item(2L, "Дрель ударная", false));
+        suggester.index(item(4L, "Дрезина", true));
+
+        assertEquals(List.of("Дрезина"), suggester.suggest("дре", 10));
+        assertEquals(List.of("Пила"), suggester.suggest("пи", 10));
+    }
+
+    @Test
+    void suggestKeepsSharedNameUntilLastItemRemovedTest() {
+        suggester.index(item(5L, "дрель", true));
+        suggester.index(item(1L, "Пила", true));
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), suggester.suggest("дрель", 10));
+    }
+
+    @Test
+    void rebuildLoadsAvailableItemsFromRepositoryTest() {
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any())).thenReturn(List.of(new TestItemSearchView(7L, "Лестница", "Стремянка", true)));
+
+        suggester.rebuild();
+
+        assertEquals(List.of("Лестница"), suggester.suggest("лес", 10));
+        assertEquals(Collections.emptyList(), suggester.suggest("дрель", 10));
+    }
+
+    @Test
+    void rebuildKeepsServingOldNamesAndAppliesConcurrentUpdatesTest() {
+        List<List<String>> suggestedDuringRebuild = new ArrayList<>();
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any())).thenAnswer(invocation -> {
+            suggestedDuringRebuild.add(suggester.suggest("др", 10));
+            suggester.index(item(1L, "Пила", true));
+            return List.of(new TestItemSearchView(1L, "Дрель", "Простая дрель", true),
+                    new TestItemSearchView(3L, "Дрезина", "Ручная", true));
+        });
+
+        suggester.rebuild();
+
+        assertEquals(List.of(List.of("Дрель", "Дрель ударная")), suggestedDuringRebuild);
+        assertEquals(List.of("Дрезина"), suggester.suggest("др", 10));
+        assertEquals(List.of("Пила"), suggester.suggest("пи", 10));
+    }
+
+    @Test
+    void removeDropsNamesOfDeletedItemsTest() {
+        suggester.remove(List.of(1L, 3L));
+
+        assertEquals(List.of("Дрель ударная"), suggester.suggest("д", 10));
+    }
+
+    private Item item(long id, String name, boolean available) {
+        return Item.builder().id(id).name(name).description("description").available(available).ownerId(1L).build();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ItemSearchIndex(itemRepository, "index");
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(2L, "Отвертка", "Аккумуляторная отвертка", true));
+        index.index(item(3L, "Шуруповерт", "Аккумуляторная дрель-шуруповерт", true));
+        index.index(item(4L, "Дрель ударная", "Сломана", false));
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstAndSkipsUnavailableTest() {
+        assertEquals(List.of(1L, 3L), index.search("ДРЕЛЬ", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void searchMatchesPrefixesAndIntersectsTokensTest() {
+        assertEquals(List.of(2L, 3L), index.search("аккум", PageRequest.of(0, 10)));
+        assertEquals(List.of(3L), index.search("аккумуляторная дрель", PageRequest.of(0, 10)));
+        assertEquals(Collections.emptyList(), index.search("пила", PageRequest.of(0, 10)));
+        assertEquals(Collections.emptyList(), index.search(" ", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void searchPagesResultsTest() {
+        assertEquals(List.of(3L), index.search("аккум", PageRequest.of(1, 1)));
+    }
+
+    @Test
+    void searchHandlesPageSizeBeyondResultsTest() {
+        assertEquals(List.of(1L, 3L), index.search("д", PageRequest.of(0, Integer.MAX_VALUE)));
+        assertEquals(Collections.emptyList(), index.search("д", PageRequest.of(1, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void indexReplacesTermsAndAvailabilityOnUpdateTest() {
+        index.index(item(1L, "Пила", "Ножовка", true));
+        index.index(item(4L, "Дрель ударная", "Починена", true));
+
+        assertEquals(List.of(4L, 3L), index.search("дрель", PageRequest.of(0, 10)));
+        assertEquals(List.of(1L), index.search("пила", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void rebuildLoadsItemsFromRepositoryTest() {
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any()))
+                .thenReturn(List.of(new TestItemSearchView(7L, "Лестница", "Стремянка", true)));
+
+        index.rebuild();
+
+        assertEquals(List.of(7L), index.search("стрем", PageRequest.of(0, 10)));
+        assertTrue(index.search("дрель", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void rebuildKeepsServingOldIndexAndAppliesConcurrentUpdatesTest() {
+        List<List<Long>> searchedDuringRebuild = new ArrayList<>();
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any())).thenAnswer(invocation -> {
+            searchedDuringRebuild.add(index.search("дрель", PageRequest.of(0, 10)));
+            index.index(item(1L, "Пила", "Ножовка", true));
+            return List.of(new TestItemSearchView(1L, "Дрель", "Простая дрель", true), new TestItemSearchView(3L, "Шуруповерт", "Дрель-шуруповерт", true));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(List.of(1L, 3L)), searchedDuringRebuild);
+        assertEquals(List.of(3L), index.search("дрель", PageRequest.of(0, 10)));
+        assertEquals(List.of(1L), index.search("пила", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void removeDropsItemsTest() {
+        index.remove(List.of(1L, 3L));
+
+        assertTrue(index.search("дрель", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(2L), index.search("аккум", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void disabledIndexIgnoresUpdatesTest() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, "like");
+
+        disabled.index(item(1L, "Дрель", "Простая дрель", true));
+        disabled.rebuild();
+
+        assertTrue(disabled.search("дрель", PageRequest.of(0, 10)).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    private Item item(long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).ownerId(1L).build();
+    }
+}
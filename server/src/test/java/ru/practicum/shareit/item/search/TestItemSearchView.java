@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+@Value
+class TestItemSearchView implements ItemSearchView {
+    Long id;
+    String name;
+    String description;
+    Boolean available;
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDtoExt;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.answer.ItemRequestAnswerHub;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ItemServiceImpl.class, ItemSearchIndex.class, ItemNameSuggester.class, ItemRequestFeed.class, ItemRequestAnswerHub.class, UserCache.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ItemServiceImplQueryCountTest {
+
+    private static final int ITEMS_COUNT = 20;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemService itemService;
+
+    private User owner;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        LocalDateTime now = LocalDateTime.now();
+
+        owner = new User(null, "Owner name", "owner@yandex.ru");
+        User booker = new User(null, "Booker name", "booker@yandex.ru");
+        em.persist(owner);
+        em.persist(booker);
+
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            Item item = Item.builder()
+                    .name("Item name " + i)
+                    .description("Item description " + i)
+                    .available(true)
+                    .ownerId(owner.getId())
+                    .build();
+            em.persist(item);
+            em.persist(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.minusDays(3)).end(now.minusDays(2)).build());
+            em.persist(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.minusDays(5)).end(now.minusDays(4)).build());
+            em.persist(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+                    .start(now.plusDays(1)).end(now.plusDays(2)).build());
+            em.persist(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+                    .start(now.plusDays(3)).end(now.plusDays(4)).build());
+            em.persist(Comment.builder().item(item).author(booker).text("Comment " + i).created(now).build());
+            em.persist(Comment.builder().item(item).author(owner).text("Reply " + i).created(now).build());
+        }
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllItemsOfOwnerRunsConstantNumberOfStatementsTest() {
+        List<ItemDtoExt> items = itemService.getAllItemsOfOwner(owner.getId(), 0, ITEMS_COUNT);
+
+        assertEquals(ITEMS_COUNT, items.size());
+        assertEquals(4, statistics.getPrepareStatementCount());
+        LocalDateTime now = LocalDateTime.now();
+        items.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(item.getId(), item.getLastBooking().getItemId());
+            assertEquals(item.getId(), item.getNextBooking().getItemId());
+            assertTrue(item.getLastBooking().getStart().isAfter(now.minusDays(4)));
+            assertTrue(item.getNextBooking().getStart().isBefore(now.plusDays(2)));
+            assertEquals(2, item.getComments().size());
+            assertEquals("Booker name", item.getComments().get(0).getAuthorName());
+        });
+    }
+
+    @Test
+    void getItemByIdLoadsCommentsWithoutPerCommentSelectsTest() {
+        Long itemId = itemService.getAllItemsOfOwner(owner.getId(), 0, 1).get(0).getId();
+        em.clear();
+        statistics.clear();
+
+        ItemDtoExt item = itemService.getItemById(itemId, owner.getId());
+
+        assertEquals(2, item.getComments().size());
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+}
@@ -9,13 +9,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
+import ru.practicum.shareit.item.dto.BulkItemLineDto;
+import ru.practicum.shareit.item.dto.BulkItemReportDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoExt;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -24,22 +31,28 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.answer.ItemRequestAnswerHub;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -52,7 +65,7 @@ class ItemServiceImplTest {
     private ItemRepository repository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
 
     @Mock
     private BookingRepository bookingRepository;
@@ -66,6 +79,21 @@ class ItemServiceImplTest {
     @Mock
     private UserServiceImpl userServiceImpl;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+
+    @Mock
+    private ItemRequestFeed itemRequestFeed;
+
+    @Mock
+    private ItemRequestAnswerHub itemRequestAnswerHub;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private User user1;
 
     private User user2;
@@ -101,7 +129,7 @@ class ItemServiceImplTest {
 
     @Test
     void getBookingsOwnerTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
         when(bookingRepository.findFirstByItemIdAndEndIsAfterOrderByStartAsc(anyLong(), any(LocalDateTime.class))).thenReturn(Optional.ofNullable(booking));
 
 
@@ -114,7 +142,7 @@ class ItemServiceImplTest {
 
     @Test
     void getBookingsNotOwnerTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user2));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user2));
         when(bookingRepository.findFirstByItemIdAndEndIsAfterOrderByStartAsc(anyLong(), any(LocalDateTime.class))).thenReturn(Optional.ofNullable(null));
 
 
@@ -166,7 +194,7 @@ class ItemServiceImplTest {
 
     @Test
     void getAllItemsOfOwnerTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
 
         when(repository.findAllByOwnerIdOrderById(anyLong(), any(PageRequest.class))).thenReturn(List.of(item));
 
@@ -256,31 +284,69 @@ class ItemServiceImplTest {
         assertNull(itemDtos.get(0).getRequestId());
     }
 
+    @Test
+    void searchItemWithIndexEngineTest() {
+        when(itemSearchIndex.isEnabled()).thenReturn(true);
+        when(itemSearchIndex.search(anyString(), any(PageRequest.class))).thenReturn(List.of(item.getId()));
+        when(repository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+
+        List<ItemDto> itemDtos = itemService.searchItem("item", 0, 10);
+
+        assertEquals(1, itemDtos.size());
+        assertEquals(1, itemDtos.get(0).getId());
+        verify(repository, never()).findByNameOrDescriptionLike(anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    void suggestItemNamesTest() {
+        when(itemNameSuggester.suggest("it", 5)).thenReturn(List.of("Item name"));
+
+        assertEquals(List.of("Item name"), itemService.suggestItemNames("it", 5));
+    }
+
     @Test
     void createItemTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong())).thenReturn(true);
 
         when(repository.save(any(Item.class))).thenReturn(item);
 
         ItemDto itemDto = itemService.createItem(item.getId(), itemMapper.toModelDto(item));
 
+        verify(itemSearchIndex).index(item);
+        verify(itemNameSuggester).index(item);
+
         assertEquals(1, itemDto.getId());
         assertEquals("Item name", itemDto.getName());
         assertEquals("Item description", itemDto.getDescription());
         assertEquals(true, itemDto.getAvailable());
         assertNull(itemDto.getRequestId());
+        verify(itemRequestAnswerHub, never()).publish(anyLong(), any(ItemDto.class));
+    }
+
+    @Test
+    void createItemForRequestPublishesAnswerTest() {
+        ItemRequest itemRequest = new ItemRequest(5L, "ItemRequest description", user2, now);
+        item.setRequest(itemRequest);
+        when(userCache.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findById(5L)).thenReturn(Optional.of(itemRequest));
+        when(repository.save(any(Item.class))).thenReturn(item);
+
+        ItemDto itemDto = itemService.createItem(user1.getId(), itemMapper.toModelDto(item));
+
+        assertEquals(5L, itemDto.getRequestId());
+        verify(itemRequestAnswerHub).publish(user2.getId(), itemDto);
     }
 
     @Test
     void createInappropriateItemWithNoUserTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong())).thenReturn(false);
         NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.createItem(user1.getId(), itemMapper.toModelDto(item)));
         assertThat(exception.getMessage(), is("Пользователь не найден"));
     }
 
     @Test
     void createItemWithNoRequestIdTest() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+        when(userCache.existsById(1L)).thenReturn(true);
         ItemDto itemDto = itemMapper.toModelDto(item);
         itemDto.setRequestId(5L);
 
@@ -288,9 +354,78 @@ class ItemServiceImplTest {
         assertThat(exception.getMessage(), is("Запрос не найден"));
     }
 
+    @Test
+    void importItemsSavesChunksAndReportsLinesTest() {
+        ItemRequest itemRequest = new ItemRequest(5L, "ItemRequest description", user2, now);
+        when(userCache.existsById(user1.getId())).thenReturn(true);
+        when(itemRequestRepository.findAllById(anyCollection())).thenReturn(List.of(itemRequest));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            long id = 100;
+            for (Item saved : items) {
+                saved.setId(id++);
+            }
+            return items;
+        });
+        List<BulkItemLineDto> lines = new ArrayList<>();
+        for (int i = 1; i <= 600; i++) {
+            ItemDto itemDto = ItemDto.builder().name("Item " + i).description("Description " + i).available(true).build();
+            if (i == 2) {
+                itemDto.setRequestId(5L);
+            }
+            if (i == 3) {
+                itemDto.setRequestId(6L);
+            }
+            lines.add(new BulkItemLineDto(i, itemDto));
+        }
+
+        BulkItemReportDto report = itemService.importItems(user1.getId(), lines.iterator());
+
+        assertEquals(599, report.getCreated());
+        assertEquals(1, report.getFailed());
+        assertEquals(600, report.getResults().size());
+        assertEquals(100L, report.getResults().get(0).getId());
+        assertEquals("Запрос не найден", report.getResults().get(2).getError());
+        assertNull(report.getResults().get(2).getId());
+        assertEquals(List.of(1, 2, 3), report.getResults().subList(0, 3).stream()
+                .map(result -> result.getLine()).collect(Collectors.toList()));
+        verify(repository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(itemSearchIndex, times(599)).index(any(Item.class));
+        verify(itemRequestAnswerHub).publish(eq(user2.getId()), any(ItemDto.class));
+    }
+
+    @Test
+    void importItemsMarksFailedChunkTest() {
+        when(userCache.existsById(user1.getId())).thenReturn(true);
+        when(repository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("name"));
+        List<BulkItemLineDto> lines = List.of(
+                new BulkItemLineDto(1, itemMapper.toModelDto(item)),
+                new BulkItemLineDto(2, itemMapper.toModelDto(item)));
+
+        BulkItemReportDto report = itemService.importItems(user1.getId(), lines.iterator());
+
+        assertEquals(0, report.getCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals("Не удалось сохранить вещь", report.getResults().get(1).getError());
+        verify(transactionManager).rollback(any());
+        verify(itemSearchIndex, never()).index(any(Item.class));
+    }
+
+    @Test
+    void importItemsWithNoUserTest() {
+        when(userCache.existsById(anyLong())).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.importItems(user1.getId(), Collections.emptyIterator()));
+
+        assertThat(exception.getMessage(), is("Пользователь не найден"));
+        verify(repository, never()).saveAll(anyList());
+    }
+
     @Test
     void createItemWithNullItemRequestTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong())).thenReturn(true);
         when(repository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
 
         ItemDto itemDto = itemMapper.toModelDto(item);
@@ -408,7 +543,7 @@ class ItemServiceImplTest {
 
     @Test
     void updateItemFromNotUserTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.findById(anyLong())).thenReturn(Optional.empty());
 
 
         NotFoundException exception = Assertions.assertThrows(NotFoundException.class, () -> itemService.getItemById(3L, item.getId()));
@@ -431,7 +566,7 @@ class ItemServiceImplTest {
 
         when(repository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
 
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
@@ -447,7 +582,7 @@ class ItemServiceImplTest {
         when(bookingRepository.findByBookerIdAndItemIdAndEndBefore(anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(Optional.of(booking));
 
         when(repository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
         CommentDto commentDto = itemService.addComment(1, 1, commentMapper.toModelDto(comment));
@@ -469,11 +604,65 @@ class ItemServiceImplTest {
     @Test
     void createCommentFromUserWrongItemTest() {
         when(repository.findById(anyLong())).thenReturn(Optional.empty());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> itemService.addComment(1L, 10L, commentMapper.toModelDto(comment)));
 
         assertEquals("Вещь не найдена", exception.getMessage());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailabilityMergesBusyIntervalsTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(repository.existsById(item.getId())).thenReturn(true);
+        when(bookingRepository.findBusyIntervals(item.getId(), from, to, BookingStatus.BLOCKING))
+                .thenReturn(List.of(
+                        new AvailabilityIntervalDto(from.minusDays(1), from.plusDays(1)),
+                        new AvailabilityIntervalDto(from.plusDays(1), from.plusDays(2)),
+                        new AvailabilityIntervalDto(from.plusDays(4), from.plusDays(6)),
+                        new AvailabilityIntervalDto(from.plusDays(5), from.plusDays(5).plusHours(1))));
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(item.getId(), from, to);
+
+        assertEquals(item.getId(), availability.getItemId());
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from, from.plusDays(2), true),
+                new AvailabilityIntervalDto(from.plusDays(2), from.plusDays(4), false),
+                new AvailabilityIntervalDto(from.plusDays(4), from.plusDays(6), true),
+                new AvailabilityIntervalDto(from.plusDays(6), to, false)), availability.getIntervals());
+    }
+
+    @Test
+    void getItemAvailabilityWithoutBookingsTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(repository.existsById(item.getId())).thenReturn(true);
+        when(bookingRepository.findBusyIntervals(item.getId(), from, to, BookingStatus.BLOCKING))
+                .thenReturn(Collections.emptyList());
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(item.getId(), from, to);
+
+        assertEquals(List.of(new AvailabilityIntervalDto(from, to, false)), availability.getIntervals());
+    }
+
+    @Test
+    void getItemAvailabilityWrongWindowTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(repository.existsById(anyLong())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> itemService.getItemAvailability(item.getId(), from, from));
+        assertThrows(BadRequestException.class,
+                () -> itemService.getItemAvailability(item.getId(), from, from.plusYears(2)));
+        verify(bookingRepository, never()).findBusyIntervals(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void getItemAvailabilityItemNotFoundTest() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(repository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemAvailability(99L, from, from.plusDays(1)));
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemCommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -73,12 +74,35 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void findAllComments() {
-        List<Comment> comments = commentRepository.findAllByItemId(item.getId());
+    void findAllCommentsSkipsOtherItems() {
+        Item other = Item.builder()
+                .name("Other name")
+                .description("Other description")
+                .available(true)
+                .ownerId(user2.getId())
+                .build();
+        em.persist(other);
+        em.persist(Comment.builder()
+                .text("Other comment")
+                .item(other)
+                .author(user1)
+                .created(comment.getCreated())
+                .build());
+
+        List<ItemCommentDto> comments = commentRepository.findAllByItemIdIn(List.of(item.getId()));
+
+        assertEquals(1, comments.size());
+        assertEquals(comment.getId(), comments.get(0).getComment().getId());
+    }
+
+    @Test
+    void findAllCommentsByItemIds() {
+        List<ItemCommentDto> comments = commentRepository.findAllByItemIdIn(List.of(item.getId()));
 
         assertEquals(1, comments.size());
-        assertEquals(comment.getId(), comments.get(0).getId());
-        assertEquals(comment.getAuthor(), comments.get(0).getAuthor());
-        assertEquals(comment.getText(), comments.get(0).getText());
+        assertEquals(item.getId(), comments.get(0).getItemId());
+        assertEquals(comment.getId(), comments.get(0).getComment().getId());
+        assertEquals(user2.getName(), comments.get(0).getComment().getAuthorName());
+        assertEquals(comment.getText(), comments.get(0).getComment().getText());
     }
-}
\ No newline at end of file
+}
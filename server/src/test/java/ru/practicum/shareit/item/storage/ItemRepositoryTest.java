@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.storage;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,14 +17,17 @@ import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class ItemRepositoryTest {
     @Autowired
@@ -37,6 +42,9 @@ class ItemRepositoryTest {
     @Autowired
     private ItemRequestRepository itemRequestRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User user1;
 
     private Item item;
@@ -112,6 +120,47 @@ class ItemRepositoryTest {
         assertEquals(item.getName(), items.get(0).getName());
     }
 
+    @Test
+    void findByNameOrDescriptionLikeSkipsUnavailableTest() {
+        Item unavailable = Item.builder()
+                .name("Unavailable")
+                .description("Item description too")
+                .available(false)
+                .ownerId(user1.getId())
+                .build();
+        em.persist(unavailable);
+
+        List<Item> items = itemRepository.findByNameOrDescriptionLike("description", PageRequest.of(0, 10));
+
+        assertEquals(List.of(item.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findByNameOrDescriptionLikeRanksNameMatchesFirstTest() {
+        Item byName = Item.builder()
+                .name("Drill")
+                .description("Cordless")
+                .available(true)
+                .ownerId(user1.getId())
+                .build();
+        em.persist(byName);
+        Item byDescription = Item.builder()
+                .name("Set")
+                .description("Drill bits 10% off_")
+                .available(true)
+                .ownerId(user1.getId())
+                .build();
+        em.persist(byDescription);
+
+        List<Item> items = itemRepository.findByNameOrDescriptionLike("drill", PageRequest.of(0, 10));
+        List<Item> escaped = itemRepository.findByNameOrDescriptionLike("0% off_", PageRequest.of(0, 10));
+
+        assertEquals(List.of(byName.getId(), byDescription.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(List.of(byDescription.getId()), escaped.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(1, itemRepository.findByNameOrDescriptionLike("_", PageRequest.of(0, 10)).size());
+    }
+
     @Test
     void searchByIdTest() {
         Optional<Item> item1 = itemRepository.findById(item.getId());
@@ -127,4 +176,35 @@ class ItemRepositoryTest {
         assertEquals(item.getId(), items.get(0).getId());
         assertEquals(item.getName(), items.get(0).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByRequest_IdInTest() {
+        List<Item> items = itemRepository.findAllByRequest_IdIn(List.of(itemRequest.getId(), itemRequest.getId() + 100));
+
+        assertEquals(1, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+        assertEquals(itemRequest.getId(), items.get(0).getRequest().getId());
+    }
+
+    @Test
+    void saveAllBatchesInsertsTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(Item.builder()
+                    .name("Batch item " + i)
+                    .description("Batch item description")
+                    .available(true)
+                    .ownerId(user1.getId())
+                    .build());
+        }
+        em.flush();
+        statistics.clear();
+
+        itemRepository.saveAll(items);
+        em.flush();
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6, "statements: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,217 @@
+package ru.practicum.shareit.request.answer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"shareit.requests.answers.send-timeout=500", "shareit.requests.answers.heartbeat=200"})
+class ItemRequestAnswerHubTest {
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ItemRequestAnswerHub itemRequestAnswerHub;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void answerIsPushedToRequesterTest() throws Exception {
+        User requester = userRepository.save(new User(null, "Requester", "requester@yandex.ru"));
+        User other = userRepository.save(new User(null, "Other", "other@yandex.ru"));
+        User owner = userRepository.save(new User(null, "Owner", "owner@yandex.ru"));
+        ItemRequestDto request = itemRequestService.createItemRequest(
+                new ItemRequestDto(null, "Need a drill", null, null, null), requester.getId());
+
+        BlockingQueue<String> requesterLines = subscribe(requester.getId());
+        BlockingQueue<String> otherLines = subscribe(other.getId());
+        awaitSubscribers(requester.getId());
+        awaitSubscribers(other.getId());
+
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Drill");
+        itemDto.setDescription("Cordless drill");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(request.getId());
+        ItemDto item = itemService.createItem(owner.getId(), itemDto);
+
+        assertEquals("id:" + item.getId(), requesterLines.poll(5, TimeUnit.SECONDS));
+        assertEquals("event:answer", requesterLines.poll(5, TimeUnit.SECONDS));
+        String data = requesterLines.poll(5, TimeUnit.SECONDS);
+        assertTrue(data.startsWith("data:") && data.contains("\"name\":\"Drill\""), data);
+        assertNull(otherLines.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void slowSubscriberDoesNotDelayOthersAndIsDroppedTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<SseEmitter.SseEventBuilder> sent = new LinkedBlockingQueue<>();
+        itemRequestAnswerHub.subscribe(1001L, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        itemRequestAnswerHub.subscribe(1002L, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sent.add(builder);
+            }
+        });
+        ItemDto item = new ItemDto();
+        item.setId(1L);
+        item.setName("Drill");
+        try {
+            itemRequestAnswerHub.publish(1001L, item);
+            itemRequestAnswerHub.publish(1002L, item);
+
+            assertNotNull(sent.poll(1, TimeUnit.SECONDS));
+
+            for (int i = 0; i <= 100; i++) {
+                itemRequestAnswerHub.publish(1001L, item);
+            }
+            assertEquals(0, itemRequestAnswerHub.subscriberCount(1001L));
+            assertEquals(1, itemRequestAnswerHub.subscriberCount(1002L));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stalledSendIsDroppedWithoutInterruptTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        itemRequestAnswerHub.subscribe(1003L, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        });
+        ItemDto item = new ItemDto();
+        item.setId(1L);
+        item.setName("Drill");
+
+        itemRequestAnswerHub.publish(1003L, item);
+
+        for (int i = 0; i < 50 && itemRequestAnswerHub.subscriberCount(1003L) > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, itemRequestAnswerHub.subscriberCount(1003L));
+        release.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    void heartbeatDoesNotDropIdleSubscribersTest() throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        List<CountDownLatch> beats = new ArrayList<>();
+        for (long userId = 2000L; userId < 3500L; userId++) {
+            CountDownLatch beat = new CountDownLatch(1);
+            beats.add(beat);
+            itemRequestAnswerHub.subscribe(userId, new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) throws IOException {
+                    if (done.get()) {
+                        throw new IOException("closed");
+                    }
+                    beat.countDown();
+                }
+            });
+        }
+        try {
+            for (CountDownLatch beat : beats) {
+                assertTrue(beat.await(5, TimeUnit.SECONDS));
+            }
+            for (long userId = 2000L; userId < 3500L; userId++) {
+                assertEquals(1, itemRequestAnswerHub.subscriberCount(userId));
+            }
+        } finally {
+            done.set(true);
+        }
+    }
+
+    private BlockingQueue<String> subscribe(long userId) {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/requests/answers"))
+                .header("Accept", "text/event-stream")
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .build();
+        HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenAccept(response -> {
+                    try (Stream<String> body = response.body()) {
+                        body.filter(line -> !line.isEmpty() && !line.startsWith(":")).forEach(lines::add);
+                    }
+                });
+        return lines;
+    }
+
+    private void awaitSubscribers(long userId) throws InterruptedException {
+        for (int i = 0; i < 50 && itemRequestAnswerHub.subscriberCount(userId) == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, itemRequestAnswerHub.subscriberCount(userId));
+    }
+}
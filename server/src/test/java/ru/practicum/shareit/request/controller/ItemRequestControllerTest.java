@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -87,7 +89,7 @@ class ItemRequestControllerTest {
 
     @Test
     void getForUserRequestsTest() throws Exception {
-        when(itemRequestService.getForUserRequests(anyLong()))
+        when(itemRequestService.getForUserRequests(anyLong(), anyInt(), anyInt()))
                 .thenReturn(Collections.singletonList(itemRequest1Dto));
 
         mvc.perform(get("/requests")
@@ -99,7 +101,7 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].requesterid").value(1L))
                 .andExpect(jsonPath("$[0].description").value("ItemRequest1 description"));
         verify(itemRequestService, times(1))
-                .getForUserRequests(anyLong());
+                .getForUserRequests(1L, 0, 10);
     }
 
     @Test
@@ -135,4 +137,18 @@ class ItemRequestControllerTest {
         verify(itemRequestService, times(1))
                 .getItemRequest(anyLong(), anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void subscribeAnswersTest() throws Exception {
+        when(itemRequestService.subscribeAnswers(anyLong()))
+                .thenReturn(new SseEmitter());
+
+        mvc.perform(get("/requests/answers")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header(sharerUserId, 1L))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        verify(itemRequestService, times(1))
+                .subscribeAnswers(1L);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemRequestFeedTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void pageSkipsViewerRequestsNewestFirstTest() {
+        ItemRequestFeed feed = feed(10, List.of(request(1L, 1L, 0), request(2L, 2L, 1), request(3L, 1L, 2)));
+
+        feed.add(request(4L, 2L, 3));
+        feed.add(request(5L, 3L, 4));
+
+        assertEquals(List.of(5L, 4L, 2L), ids(feed.page(1L, 0, 10)));
+        assertEquals(List.of(4L), ids(feed.page(1L, 1, 1)));
+        assertEquals(List.of(5L, 3L, 1L), ids(feed.page(2L, 0, 10)));
+        assertEquals(Collections.emptyList(), ids(feed.page(1L, 5, 10)));
+    }
+
+    @Test
+    void pageCarriesRequestItemsTest() {
+        ItemRequestFeed feed = feed(10, List.of(request(1L, 1L, 0)));
+
+        feed.addItem(item(10L, request(1L, 1L, 0)));
+        feed.addItem(item(11L, request(1L, 1L, 0)));
+        feed.addItem(item(12L, null));
+        feed.addItem(item(13L, request(42L, 1L, 0)));
+
+        ItemRequestFeedEntry entry = feed.page(2L, 0, 10).orElseThrow().get(0);
+        assertEquals(List.of(10L, 11L), entry.getItemIds());
+        assertEquals("Request 1", entry.getDescription());
+        assertEquals(1L, entry.getRequesterId());
+    }
+
+    @Test
+    void pageFallsBackWhenFeedIsTruncatedTest() {
+        ItemRequestFeed feed = feed(2, List.of(request(1L, 1L, 0), request(2L, 2L, 1)));
+
+        assertEquals(List.of(2L), ids(feed.page(1L, 0, 1)));
+        assertTrue(feed.page(1L, 0, 2).isEmpty());
+
+        feed.add(request(3L, 3L, 2));
+
+        assertEquals(List.of(3L, 2L), ids(feed.page(1L, 0, 2)));
+        assertTrue(feed.page(3L, 0, 2).isEmpty());
+    }
+
+    @Test
+    void pageIsEmptyBeforeRebuildTest() {
+        ItemRequestFeed feed = new ItemRequestFeed(itemRequestRepository, itemRepository, 10);
+
+        assertTrue(feed.page(1L, 0, 10).isEmpty());
+    }
+
+    @Test
+    void removeRequesterTest() {
+        ItemRequestFeed feed = feed(10, List.of(request(1L, 1L, 0), request(2L, 2L, 1)));
+
+        feed.removeRequester(2L);
+
+        assertEquals(List.of(1L), ids(feed.page(3L, 0, 10)));
+    }
+
+    @Test
+    void rebuildKeepsServingOldFeedAndAppliesConcurrentUpdatesTest() {
+        ItemRequestFeed feed = feed(10, List.of(request(1L, 1L, 0), request(2L, 2L, 1)));
+        List<List<Long>> pagedDuringRebuild = new ArrayList<>();
+        when(itemRequestRepository.findAllByOrderByCreatedDescIdDesc(any())).thenAnswer(invocation -> {
+            pagedDuringRebuild.add(ids(feed.page(3L, 0, 10)));
+            feed.add(request(4L, 2L, 3));
+            feed.addItem(item(10L, request(1L, 1L, 0)));
+            return List.of(request(3L, 1L, 2), request(1L, 1L, 0));
+        });
+
+        feed.rebuild();
+
+        assertEquals(List.of(List.of(2L, 1L)), pagedDuringRebuild);
+        assertEquals(List.of(4L, 3L, 1L), ids(feed.page(3L, 0, 10)));
+        assertEquals(List.of(10L), feed.page(3L, 2, 1).orElseThrow().get(0).getItemIds());
+    }
+
+    private ItemRequestFeed feed(int capacity, List<ItemRequest> requests) {
+        List<ItemRequest> newestFirst = requests.stream()
+                .sorted((a, b) -> b.getCreated().compareTo(a.getCreated()))
+                .collect(Collectors.toList());
+        when(itemRequestRepository.findAllByOrderByCreatedDescIdDesc(any())).thenReturn(newestFirst);
+        when(itemRepository.findAllRequestItemIds(anyCollection())).thenReturn(Collections.emptyList());
+        ItemRequestFeed feed = new ItemRequestFeed(itemRequestRepository, itemRepository, capacity);
+        feed.rebuild();
+        return feed;
+    }
+
+    private List<Long> ids(Optional<List<ItemRequestFeedEntry>> page) {
+        return page.orElseThrow().stream().map(ItemRequestFeedEntry::getId).collect(Collectors.toList());
+    }
+
+    private ItemRequest request(long id, long requesterId, int minutes) {
+        return new ItemRequest(id, "Request " + id, new User(requesterId, "User", "user@yandex.ru"), NOW.plusMinutes(minutes));
+    }
+
+    private Item item(long id, ItemRequest request) {
+        return Item.builder()
+                .id(id)
+                .name("Item " + id)
+                .description("Item description")
+                .available(true)
+                .ownerId(5L)
+                .request(request)
+                .build();
+    }
+}
@@ -11,15 +11,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.answer.ItemRequestAnswerHub;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.request.feed.ItemRequestFeedEntry;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.FromSizeRequest;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -30,8 +35,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,7 +55,11 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestRepository requestRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
+    @Mock
+    private ItemRequestFeed itemRequestFeed;
+    @Mock
+    private ItemRequestAnswerHub itemRequestAnswerHub;
     private ItemRequestDto itemRequest1Dto;
     private Item item1;
     private User user1;
@@ -90,7 +102,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void createItemRequestWhenUserFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
 
         when(requestRepository.save(any())).thenReturn(itemRequest1);
 
@@ -100,11 +112,12 @@ class ItemRequestServiceImplTest {
 
         assertEquals(itemRequest1Dto.getId(), itemRequestDto.getId());
         verify(requestRepository, Mockito.times(1)).save(any());
+        verify(itemRequestFeed).add(itemRequest1);
     }
 
     @Test
     void createItemRequestWhenUserNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException invalidUserIdException;
 
@@ -116,41 +129,69 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getForUserRequestsWhenUserFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
-        when(requestRepository.findAllByRequesterIdOrderByCreatedDesc(user1.getId()))
+        when(userCache.existsById(anyLong())).thenReturn(true);
+        when(requestRepository.findAllByRequesterIdOrderByCreatedDesc(eq(user1.getId()), any(PageRequest.class)))
                 .thenReturn(List.of(itemRequest1));
+        when(itemRepository.findAllByRequest_IdIn(List.of(itemRequest1.getId())))
+                .thenReturn(List.of(item1));
 
-        List<ItemRequestDto> responseList = itemRequestService.getForUserRequests(user1.getId());
+        List<ItemRequestDto> responseList = itemRequestService.getForUserRequests(user1.getId(), 0, 10);
         assertEquals(1, responseList.size());
-        verify(requestRepository).findAllByRequesterIdOrderByCreatedDesc(anyLong());
+        assertEquals(1, responseList.get(0).getItems().size());
+        assertEquals(item1.getId(), responseList.get(0).getItems().get(0).getId());
+        verify(requestRepository).findAllByRequesterIdOrderByCreatedDesc(anyLong(), any(PageRequest.class));
+        verify(itemRepository, never()).findAllByRequest_Id(anyLong());
     }
 
     @Test
     void getForUserRequestsWhenUserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong())).thenReturn(false);
 
         NotFoundException invalidUserIdException;
 
         invalidUserIdException = Assertions.assertThrows(NotFoundException.class,
-                () -> itemRequestService.getForUserRequests(3L));
+                () -> itemRequestService.getForUserRequests(3L, 0, 10));
         assertThat(invalidUserIdException.getMessage(), is("Пользователь не найден"));
     }
 
     @Test
     void getForNotForUserRequestsWhenUserFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user1));
-        when(userRepository.findById(2L)).thenReturn(Optional.ofNullable(user2));
-        when(requestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(user1.getId(), PageRequest.of(0 / 10, 10)))
+        when(userCache.existsById(1L)).thenReturn(true);
+        when(userCache.existsById(2L)).thenReturn(true);
+        when(requestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(user1.getId(), FromSizeRequest.of(0, 10)))
                 .thenReturn(List.of(itemRequest2));
 
         List<ItemRequestDto> responseList = itemRequestService.getNotForUserRequests(user1.getId(), 0, 10);
         assertEquals(1, responseList.size());
+        assertEquals(List.of(), responseList.get(0).getItems());
+        verify(itemRepository).findAllByRequest_IdIn(List.of(itemRequest2.getId()));
         verify(requestRepository).findAllByRequesterIdIsNotOrderByCreatedDesc(anyLong(), any(PageRequest.class));
     }
 
+    @Test
+    void getForNotForUserRequestsFromFeed() {
+        when(userCache.existsById(1L)).thenReturn(true);
+        when(itemRequestFeed.page(user1.getId(), 0, 10))
+                .thenReturn(Optional.of(List.of(new ItemRequestFeedEntry(itemRequest2.getId(),
+                        itemRequest2.getDescription(),
+                        user2.getId(),
+                        itemRequest2.getCreated(),
+                        List.of(item1.getId(), 99L)))));
+        when(itemRepository.findAllById(List.of(item1.getId(), 99L))).thenReturn(List.of(item1));
+
+        List<ItemRequestDto> responseList = itemRequestService.getNotForUserRequests(user1.getId(), 0, 10);
+
+        assertEquals(1, responseList.size());
+        assertEquals(itemRequest2.getId(), responseList.get(0).getId());
+        assertEquals(user2.getId(), responseList.get(0).getRequesterid());
+        assertEquals(1, responseList.get(0).getItems().size());
+        assertEquals(item1.getId(), responseList.get(0).getItems().get(0).getId());
+        verify(requestRepository, never()).findAllByRequesterIdIsNotOrderByCreatedDesc(anyLong(), any());
+    }
+
     @Test
     void getForNotForUserRequestsWhenUserNotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong())).thenReturn(false);
 
         NotFoundException invalidUserIdException;
 
@@ -161,7 +202,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequestWhenAllFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong())).thenReturn(true);
         when(requestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest1));
 
         when(itemRepository.findAllByRequest_Id(anyLong())).thenReturn(Collections.singletonList(item1));
@@ -180,7 +221,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequestWhenRequestNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user1));
+        when(userCache.existsById(anyLong())).thenReturn(true);
         when(requestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         NotFoundException invalidUserIdException;
@@ -192,7 +233,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getItemRequestWhenUserNotFoundTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.existsById(anyLong())).thenReturn(false);
 
         NotFoundException invalidUserIdException;
 
@@ -200,4 +241,23 @@ class ItemRequestServiceImplTest {
                 () -> itemRequestService.getItemRequest(3L, itemRequest1Dto.getId()));
         assertThat(invalidUserIdException.getMessage(), is("Пользователь не найден"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void subscribeAnswersTest() {
+        SseEmitter emitter = new SseEmitter();
+        when(userCache.existsById(1L)).thenReturn(true);
+        when(itemRequestAnswerHub.subscribe(1L)).thenReturn(emitter);
+
+        assertSame(emitter, itemRequestService.subscribeAnswers(1L));
+    }
+
+    @Test
+    void subscribeAnswersWhenUserNotFoundTest() {
+        when(userCache.existsById(anyLong())).thenReturn(false);
+
+        NotFoundException exception = Assertions.assertThrows(NotFoundException.class,
+                () -> itemRequestService.subscribeAnswers(3L));
+        assertThat(exception.getMessage(), is("Пользователь не найден"));
+        verify(itemRequestAnswerHub, never()).subscribe(anyLong());
+    }
+}
@@ -68,7 +68,7 @@ class ItemRequestRepositoryTest {
 
     @Test
     void findAllByRequesterIdOrderByCreatedDescTest() {
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user1.getId());
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user1.getId(), PageRequest.of(0, 10));
 
         assertEquals(List.of(itemRequest1), itemRequests);
     }
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void beforeEach() {
+        userCache = new UserCache(userRepository, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void findByIdLoadsOnceTest() {
+        when(userRepository.findDetachedById(1L)).thenReturn(Optional.of(new User(1L, "User1 name", "user1@yandex.ru")));
+
+        assertEquals("User1 name", userCache.findById(1L).orElseThrow().getName());
+        assertTrue(userCache.existsById(1L));
+        assertEquals("user1@yandex.ru", userCache.findById(1L).orElseThrow().getEmail());
+
+        verify(userRepository, times(1)).findDetachedById(1L);
+    }
+
+    @Test
+    void missingUserIsNotCachedTest() {
+        when(userRepository.findDetachedById(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new User(1L, "User1 name", "user1@yandex.ru")));
+
+        assertFalse(userCache.existsById(1L));
+        assertTrue(userCache.existsById(1L));
+
+        verify(userRepository, times(2)).findDetachedById(1L);
+    }
+
+    @Test
+    void evictReloadsUserTest() {
+        when(userRepository.findDetachedById(1L))
+                .thenReturn(Optional.of(new User(1L, "User1 name", "user1@yandex.ru")))
+                .thenReturn(Optional.of(new User(1L, "User1 updated", "user1@yandex.ru")));
+
+        assertEquals("User1 name", userCache.findById(1L).orElseThrow().getName());
+        userCache.evict(1L);
+
+        assertEquals("User1 updated", userCache.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void returnedUserIsCopyTest() {
+        when(userRepository.findDetachedById(1L)).thenReturn(Optional.of(new User(1L, "User1 name", "user1@yandex.ru")));
+
+        userCache.findById(1L).orElseThrow().setName("Changed");
+
+        assertEquals("User1 name", userCache.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void metricsTest() {
+        when(userRepository.findDetachedById(1L)).thenReturn(Optional.of(new User(1L, "User1 name", "user1@yandex.ru")));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userCache.bindTo(registry);
+
+        userCache.existsById(1L);
+        userCache.existsById(1L);
+        userCache.existsById(1L);
+
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", "users", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "users", "result", "miss").functionCounter().count());
+        assertEquals(0.0, registry.get("cache.evictions").tags("cache", "users").functionCounter().count());
+    }
+}
@@ -7,11 +7,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.feed.ItemRequestFeed;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -20,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +38,27 @@ class UserServiceImplTest {
     @Mock
     private UserRepository repository;
 
+    @Mock
+    private ItemRequestFeed itemRequestFeed;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
     @InjectMocks
     private UserServiceImpl service;
 
@@ -67,6 +98,7 @@ class UserServiceImplTest {
         assertEquals(1, user1.getId());
         assertEquals("User1 name", user1.getName());
         assertEquals("user1@yandex.ru", user1.getEmail());
+        verify(userCache).evict(1L);
     }
 
     @Test
@@ -150,6 +182,7 @@ class UserServiceImplTest {
         );
 
         assertEquals("Пользователь не найден", exc.getMessage());
+        verify(userCache, never()).evict(anyLong());
     }
 
     @Test
@@ -171,7 +204,7 @@ class UserServiceImplTest {
     @Test
     void getAllUsersWhenUserFoundThenUserNotFoundExceptionThrown() {
         long userId = 0L;
-        when(repository.findById(userId))
+        when(userCache.findById(userId))
                 .thenReturn(Optional.empty());
         NotFoundException exc = assertThrows(NotFoundException.class, () -> service.getUserById(userId));
         assertEquals("Пользователь не найден", exc.getMessage());
@@ -179,7 +212,7 @@ class UserServiceImplTest {
 
     @Test
     void getByIdTest() {
-        when(repository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user1));
 
         User user = service.getUserById(user1.getId());
@@ -191,7 +224,7 @@ class UserServiceImplTest {
 
     @Test
     void getUserWrongIdTest() {
-        when(repository.findById(anyLong()))
+        when(userCache.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
@@ -207,11 +240,29 @@ class UserServiceImplTest {
 
         User user = service.deleteUser(user1.getId());
 
+        verify(userCache).evict(1L);
         assertEquals(1, user.getId());
         assertEquals("User1 name", user.getName());
         assertEquals("user1@yandex.ru", user.getEmail());
     }
 
+    @Test
+    void deleteUserEvictsOwnedItemsTest() {
+        when(repository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user1));
+        when(itemRepository.findIdsByOwnerId(1L))
+                .thenReturn(List.of(10L, 11L));
+        when(entityManagerFactory.getCache())
+                .thenReturn(cache);
+
+        service.deleteUser(user1.getId());
+
+        verify(cache).evict(Item.class, 10L);
+        verify(cache).evict(Item.class, 11L);
+        verify(itemSearchIndex).remove(List.of(10L, 11L));
+        verify(itemNameSuggester).remove(List.of(10L, 11L));
+    }
+
     @Test
     void deleteUserTestWithNoUser() {
         when(repository.findById(anyLong()))
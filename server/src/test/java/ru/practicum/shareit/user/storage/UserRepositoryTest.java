@@ -0,0 +1,36 @@
+package ru.practicum.shareit.user.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void findDetachedByIdTest() {
+        User saved = em.persistAndFlush(new User(null, "User1 name", "user1@yandex.ru"));
+        em.clear();
+
+        User user = userRepository.findDetachedById(saved.getId()).orElseThrow();
+
+        assertEquals(saved.getId(), user.getId());
+        assertEquals("User1 name", user.getName());
+        assertEquals("user1@yandex.ru", user.getEmail());
+        assertFalse(em.getEntityManager().contains(user));
+        assertTrue(userRepository.findDetachedById(saved.getId() + 1).isEmpty());
+    }
+}
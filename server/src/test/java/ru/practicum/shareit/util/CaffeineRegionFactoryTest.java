@@ -0,0 +1,120 @@
+package ru.practicum.shareit.util;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CaffeineRegionFactoryTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(new User(null, "Owner", "owner@yandex.ru"));
+        item = itemRepository.save(Item.builder()
+                .name("Item name")
+                .description("Item description")
+                .available(true)
+                .ownerId(owner.getId())
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void regionsConfiguredFromPropertiesTest() {
+        CacheManager cacheManager = ((JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory())
+                .getCacheManager();
+
+        CaffeineConfiguration<?, ?> items = cacheManager.getCache("items").getConfiguration(CaffeineConfiguration.class);
+        CaffeineConfiguration<?, ?> requests = cacheManager.getCache("item-requests").getConfiguration(CaffeineConfiguration.class);
+
+        assertEquals(10_000, items.getMaximumSize().getAsLong());
+        assertEquals(5_000, requests.getMaximumSize().getAsLong());
+        assertEquals(TimeUnit.MINUTES.toNanos(10), items.getExpireAfterWrite().getAsLong());
+    }
+
+    @Test
+    void updateItemRefreshesCachedItemTest() {
+        assertEquals("Item name", itemRepository.findById(item.getId()).orElseThrow().getName());
+
+        ItemDto update = new ItemDto();
+        update.setName("Updated name");
+        itemService.updateItem(owner.getId(), item.getId(), update);
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("items");
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+
+        assertEquals("Updated name", itemRepository.findById(item.getId()).orElseThrow().getName());
+        assertEquals(hits + 1, region.getHitCount());
+        assertEquals(misses, region.getMissCount());
+    }
+
+    @Test
+    void deleteUserEvictsCascadedItemsTest() {
+        assertEquals("Item name", itemRepository.findById(item.getId()).orElseThrow().getName());
+
+        userService.deleteUser(owner.getId());
+
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void updateUserRefreshesCachedUserTest() {
+        assertEquals("Owner", userRepository.findById(owner.getId()).orElseThrow().getName());
+
+        userService.updateUser(owner.getId(), new User(null, "Renamed", null));
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("users");
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+
+        assertEquals("Renamed", userRepository.findById(owner.getId()).orElseThrow().getName());
+        assertEquals("Renamed", userService.getUserById(owner.getId()).getName());
+        assertEquals(hits + 1, region.getHitCount());
+        assertEquals(misses, region.getMissCount());
+    }
+}